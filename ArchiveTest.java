@@ -0,0 +1,114 @@
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * GameArchive checks: java ArchiveTest (see Checks).
+ * Appends sessions to a temporary archive, crashes one half way, and reads games back by number.
+ */
+public class ArchiveTest extends Checks {
+
+    static GameEngine game = new GameEngine(0);
+    static MoveBuffer moves = new MoveBuffer();
+    static Bot[] bots = {new RandomBot(), new RandomBot(), new RandomBot(), new RandomBot()};
+
+    // Plays games 0..count-1 of a run and appends them; returns the records in archive order
+    static GameRecord[] appendSession(GameArchiveWriter writer, long runSeed, int count) throws Exception {
+        GameRecord[] records = new GameRecord[count];
+        for (int g = 0; g < count; g++) {
+            long seed = GameRandom.seedFor(runSeed, g);
+            records[g] = new GameRecord();
+            records[g].start(g, seed);
+            game.initializeGame(seed);
+            Simulator.playGame(game, bots, moves, new SplittableRandom(seed ^ Simulator.BOT_SALT), records[g]);
+            writer.append(records[g]);
+        }
+        return records;
+    }
+
+    static void checkGame(GameArchive archive, long n, GameRecord expected, String what) {
+        GameRecord record = new GameRecord();
+        archive.read(n, record);
+        check(RecordTest.sameRecord(expected, record), what + " (archive game " + n + ") reads back");
+        try {
+            record.replay(game, moves);
+        } catch (IllegalStateException e) {
+            check(false, what + ": " + e.getMessage());
+        }
+    }
+
+    static void sessions() throws Exception {
+        Path dir = Files.createTempDirectory("archive-test");
+        Path file = dir.resolve("games.sarc");
+        try {
+            GameArchiveWriter writer = new GameArchiveWriter(file, 11);
+            GameRecord[] first = appendSession(writer, 11, 300);
+            writer.close();
+
+            // A session that dies half way: its games reach the file, but no index or trailer
+            GameArchiveWriter crashed = new GameArchiveWriter(file, 22);
+            appendSession(crashed, 22, 50);
+            crashed.flushData();
+            crashed.flushIndex();
+            crashed.data.close();
+            crashed.index.close();
+            long crashedSize = Files.size(file);
+
+            GameArchiveWriter resumed = new GameArchiveWriter(file, 33);
+            check(resumed.firstNumber == first.length, "resumed session starts at " + resumed.firstNumber);
+            check(Files.size(file) < crashedSize, "unfinished session cut off");
+            GameRecord[] second = appendSession(resumed, 33, 200);
+            long firstNumber = resumed.firstNumber;
+            resumed.close();
+
+            GameArchive archive = new GameArchive(file);
+            try {
+                check(archive.sessionFirst.length == 2, archive.sessionFirst.length + " sessions");
+                check(archive.games == first.length + second.length, archive.games + " games");
+                check(archive.session(0) == 0 && archive.session(firstNumber - 1) == 0, "last game of session 0 maps to it");
+                check(archive.session(firstNumber) == 1 && archive.session(archive.games - 1) == 1, "first game of session 1 maps to it");
+                try {
+                    archive.session(archive.games);
+                    check(false, "game past the end is refused");
+                } catch (IndexOutOfBoundsException expected) {
+                }
+
+                checkGame(archive, 0, first[0], "first game");
+                checkGame(archive, firstNumber - 1, first[first.length - 1], "last game of session 0");
+                checkGame(archive, firstNumber, second[0], "first game of session 1");
+                checkGame(archive, archive.games - 1, second[second.length - 1], "last game");
+
+                // A cut-short .events file is rebuilt from the archive instead of failing the load
+                GameEventIndex saved = GameEventIndex.load(file, archive.games);
+                Path events = GameEventIndex.fileFor(file);
+                for (long cut : new long[] {0, 10, Files.size(events) - 1}) {
+                    try (FileChannel channel = FileChannel.open(events, StandardOpenOption.WRITE)) {
+                        channel.truncate(cut);
+                    }
+                    GameEventIndex loaded = GameEventIndex.load(file, archive.games);
+                    boolean same = loaded.games == saved.games;
+                    for (int e = 0; e < GameEventIndex.EVENTS; e++) {
+                        same &= loaded.bitmaps[e].cardinality() == saved.bitmaps[e].cardinality()
+                                && Bitmap.andNot(loaded.bitmaps[e], saved.bitmaps[e]).cardinality() == 0;
+                    }
+                    check(same, ".events cut to " + cut + " bytes is rebuilt");
+                    saved.save(file);
+                }
+            } finally {
+                archive.close();
+            }
+        } finally {
+            for (String name : new String[] {"games.sarc", "games.sarc.events", "games.sarc.idx.tmp", "games.sarc.events.tmp"}) {
+                Files.deleteIfExists(dir.resolve(name));
+            }
+            Files.delete(dir);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        sessions();
+        finish("archive");
+    }
+}
@@ -0,0 +1,84 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes GameSnapshots to a file on a background thread, so the turn loop never waits on disk.
+ * - save(game) only encodes the snapshot (71 bytes, no I/O) and hands it over.
+ * - Only the newest snapshot matters: if turns come faster than the disk, older ones waiting
+ *   to be written are replaced rather than queued.
+ * - Each write goes to a temp file, is forced to disk and then moved over the save, so after a
+ *   crash the file holds a complete snapshot, at most a turn or two old. The fsync is paid by
+ *   the writer thread, not by the move that triggered it.
+ */
+public class Autosaver implements AutoCloseable {
+
+    Path file;
+    Path temp;
+    AtomicReference<byte[]> pending = new AtomicReference<>();
+    Thread writer;
+    volatile boolean closed = false;
+    volatile IOException failure;
+
+    Autosaver(Path file) {
+        this.file = file;
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+        writer = new Thread(this::run, "autosave");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Called by the game's thread; returns at once
+    void save(GameEngine game) {
+        if (failure != null) throw new UncheckedIOException("Autosave to " + file + " failed", failure);
+        pending.set(GameSnapshot.toBytes(game));
+        LockSupport.unpark(writer);
+    }
+
+    void run() {
+        while (true) {
+            byte[] snapshot = pending.getAndSet(null);
+            if (snapshot == null) {
+                if (closed) return;
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                write(snapshot);
+            } catch (IOException e) {
+                failure = e;
+                return;
+            }
+        }
+    }
+
+    void write(byte[] snapshot) throws IOException {
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.wrap(snapshot);
+            while (bytes.hasRemaining()) out.write(bytes);
+            out.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Writes whatever is still pending, then stops the writer
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) throw failure;
+    }
+}
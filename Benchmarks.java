@@ -0,0 +1,186 @@
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Micro-benchmarks for the rules hot paths, run as a plain main (no extra jars needed):
+ *   java Benchmarks [seconds per benchmark]
+ *
+ * Each benchmark warms up, then reports ns/op, ops/s and bytes allocated per op
+ * (from the JVM's per-thread allocation counter, like JMH's -prof gc).
+ * Positions are real mid-game boards, taken from random bot games 20-80 turns in. Each pass
+ * copies all of them into their own staged engines first and only the calls on those engines
+ * are timed, so the rows measure the rules and not the set-up.
+ *
+ * A plain main rather than a JMH module: JMH won't generate benchmarks in the default
+ * package, and the rules are package-private classes there.
+ */
+public class Benchmarks {
+
+    static final int POSITIONS = 1024;
+    static final long SEED = 42;
+
+    static volatile long sink; // keeps results alive so the JIT can't drop the work
+
+    interface Op {
+        long run(GameEngine game, int i);
+    }
+
+    // Mid-game boards plus one legal step move in each; ops run on staged[i], reset from positions[i]
+    static GameEngine[] positions = new GameEngine[POSITIONS];
+    static GameEngine[] staged = new GameEngine[POSITIONS];
+    static int[] movePlayer = new int[POSITIONS];
+    static int[] movePawn = new int[POSITIONS];
+    static int[] moveSpaces = new int[POSITIONS];
+
+    static void collectPositions() {
+        SplittableRandom rnd = new SplittableRandom(SEED);
+        GameEngine source = new GameEngine(rnd.nextLong());
+        MoveBuffer moves = new MoveBuffer();
+        Bot bot = new RandomBot();
+        int count = 0;
+        while (count < POSITIONS) {
+            source.initializeGame();
+            int stopAt = 20 + rnd.nextInt(61);
+            while (!source.isOver() && source.turns < stopAt) {
+                int card = source.prepareDecision(moves);
+                source.applyDecision(moves.get(bot.chooseMove(source, card, moves, rnd)));
+            }
+            if (source.isOver()) continue;
+
+            // Pick any pawn with a legal forward step
+            int player = source.currentPlayer;
+            int spaces = GameEngine.CARD_TYPES[rnd.nextInt(GameEngine.CARD_TYPES.length - 1)];
+            if (spaces == 4) spaces = -4;
+            int pawn = -1;
+            for (int p = 0; p < GameEngine.PAWNS_PER_PLAYER && pawn == -1; p++) {
+                if (source.canMovePawn(player, p, spaces)) pawn = p;
+            }
+            if (pawn == -1) continue;
+
+            positions[count] = new GameEngine(SEED);
+            positions[count].copyFrom(source);
+            staged[count] = new GameEngine(SEED);
+            movePlayer[count] = player;
+            movePawn[count] = pawn;
+            moveSpaces[count] = spaces;
+            count++;
+        }
+    }
+
+    static void stage() {
+        for (int i = 0; i < POSITIONS; i++) staged[i].copyFrom(positions[i]);
+    }
+
+    // One op per staged position; only this loop is timed
+    static long pass(Op op) {
+        long acc = 0;
+        for (int i = 0; i < POSITIONS; i++) acc += op.run(staged[i], i);
+        return acc;
+    }
+
+    static void bench(String name, long millis, Op op) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // Warmup
+        long warmEnd = System.nanoTime() + millis * 1_000_000L / 2;
+        long acc = 0;
+        while (System.nanoTime() < warmEnd) {
+            stage();
+            acc += pass(op);
+        }
+
+        long ops = 0;
+        long timed = 0;
+        long allocated = 0;
+        long end = System.nanoTime() + millis * 1_000_000L;
+        while (System.nanoTime() < end) {
+            stage();
+            long allocBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            acc += pass(op);
+            timed += System.nanoTime() - start;
+            allocated += threads.getCurrentThreadAllocatedBytes() - allocBefore;
+            ops += POSITIONS;
+        }
+        sink += acc;
+
+        double nsPerOp = (double) timed / ops;
+        System.out.println(String.format("%-28s %12.1f ns/op %14s ops/s %10.1f B/op",
+                name, nsPerOp, String.format("%,.0f", 1e9 / nsPerOp), (double) allocated / ops));
+    }
+
+    public static void main(String[] args) {
+        long millis = (long) (1000 * (args.length > 0 ? Double.parseDouble(args[0]) : 2.0));
+
+        SorryGood.initTrack();
+        SorryGood.initBaseGrid();
+        collectPositions();
+
+        MoveBuffer moves = new MoveBuffer();
+        Bot[] bots = {new RandomBot(), new RandomBot(), new RandomBot(), new RandomBot()};
+        SplittableRandom botRnd = new SplittableRandom(SEED);
+
+        System.out.println("=== BENCHMARKS (" + (millis / 1000.0) + " s each) ===");
+
+        bench("movePawn", millis, (game, i) -> game.movePawn(movePlayer[i], movePawn[i], moveSpaces[i], true));
+
+        // Search's make/unmake: one move taken back with PackedState.restore
+        PackedState before = new PackedState();
+        bench("capture + movePawn + restore", millis, (game, i) -> {
+            before.capture(game);
+            int result = game.movePawn(movePlayer[i], movePawn[i], moveSpaces[i], true);
+            before.restore(game);
+            return result;
+        });
+
+        bench("PackedState.capture", millis, (game, i) -> {
+            before.capture(game);
+            return before.lo;
+        });
+
+        // Land the pawn on its destination square, then resolve the bump / slide on their own
+        bench("checkBump", millis, (game, i) -> {
+            int player = movePlayer[i];
+            int pawn = movePawn[i];
+            int to = MoveTables.LAND[MoveTables.index(player, game.pawnPositions[player][pawn], moveSpaces[i])];
+            game.clearReport();
+            game.setPosition(player, pawn, to);
+            game.checkBump(player, pawn);
+            return game.bumpCount;
+        });
+
+        bench("checkSlide", millis, (game, i) -> {
+            int player = movePlayer[i];
+            int pawn = movePawn[i];
+            // Put the pawn on the next color's slide start so every call actually slides
+            game.clearReport();
+            game.setPosition(player, pawn, GameEngine.SLIDE_START[(player + 1) % GameEngine.PLAYERS]);
+            game.checkSlide(player, pawn);
+            return game.slideTo;
+        });
+
+        bench("generateMoves (card 7)", millis, (game, i) -> MoveGenerator.generateMoves(game, 7, moves));
+
+        bench("resetDeck + 44 drawCard", millis, (game, i) -> {
+            game.resetDeck();
+            long sum = 0;
+            for (int k = 0; k < GameEngine.DECK_SIZE; k++) sum += game.drawCard();
+            return sum;
+        });
+
+        bench("buildDisplayGrid", millis, (game, i) -> {
+            SorryGood.game = game;
+            SorryGood.buildDisplayGrid();
+            return SorryGood.upperGrid[0][0].length();
+        });
+
+        BoardRenderer renderer = new BoardRenderer();
+        bench("BoardRenderer.compose", millis, (game, i) -> renderer.compose(game));
+
+        bench("full random game", millis, (game, i) -> {
+            game.initializeGame();
+            Simulator.playGame(game, bots, moves, botRnd);
+            return game.turns;
+        });
+    }
+}
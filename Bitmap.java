@@ -0,0 +1,260 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints (Roaring-style), used for per-event game indexes.
+ * - Values are grouped by their high 16 bits into containers, kept sorted by key.
+ * - A container holds its low 16 bits as a sorted char[] while it has at most 4096 values
+ *   (2 bytes each) and switches to a 65536-bit long[] once that is smaller.
+ * - and() / andNot() / or() work container by container, so rare events cost almost nothing
+ *   to store and intersect, and dense ones are plain word-wise AND/AND NOT/OR.
+ */
+public class Bitmap {
+
+    static final int ARRAY_MAX = 4096;
+    static final int WORDS = 1 << 10; // 65536 bits
+
+    int size = 0;                  // containers in use
+    int[] keys = new int[4];       // high 16 bits, ascending
+    char[][] arrays = new char[4][];  // sorted low bits, or null if the container is a bitset
+    long[][] bitsets = new long[4][];
+    int[] counts = new int[4];     // values per container
+
+    // ===== Containers =====
+    int find(int key) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1;
+            else if (keys[mid] > key) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    int insertContainer(int at, int key) {
+        if (size == keys.length) {
+            int n = size * 2;
+            keys = Arrays.copyOf(keys, n);
+            arrays = Arrays.copyOf(arrays, n);
+            bitsets = Arrays.copyOf(bitsets, n);
+            counts = Arrays.copyOf(counts, n);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(arrays, at, arrays, at + 1, size - at);
+        System.arraycopy(bitsets, at, bitsets, at + 1, size - at);
+        System.arraycopy(counts, at, counts, at + 1, size - at);
+        keys[at] = key;
+        arrays[at] = new char[4];
+        bitsets[at] = null;
+        counts[at] = 0;
+        size++;
+        return at;
+    }
+
+    // ===== Single values =====
+    void add(int value) {
+        int key = value >>> 16;
+        char low = (char) value;
+        int c = find(key);
+        if (c < 0) c = insertContainer(-c - 1, key);
+
+        long[] bits = bitsets[c];
+        if (bits != null) {
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) {
+                bits[low >>> 6] |= mask;
+                counts[c]++;
+            }
+            return;
+        }
+
+        char[] array = arrays[c];
+        int n = counts[c];
+        // Values usually arrive in order, so check the end before searching
+        int at = n > 0 && array[n - 1] < low ? n : Arrays.binarySearch(array, 0, n, low);
+        if (at >= 0 && at < n) return; // already there
+        if (at < 0) at = -at - 1;
+        if (n == ARRAY_MAX) {
+            toBitset(c);
+            add(value);
+            return;
+        }
+        if (n == array.length) array = arrays[c] = Arrays.copyOf(array, Math.min(n * 2, ARRAY_MAX));
+        System.arraycopy(array, at, array, at + 1, n - at);
+        array[at] = low;
+        counts[c]++;
+    }
+
+    void toBitset(int c) {
+        long[] bits = new long[WORDS];
+        char[] array = arrays[c];
+        for (int i = 0; i < counts[c]; i++) bits[array[i] >>> 6] |= 1L << array[i];
+        bitsets[c] = bits;
+        arrays[c] = null;
+    }
+
+    boolean contains(int value) {
+        int c = find(value >>> 16);
+        if (c < 0) return false;
+        char low = (char) value;
+        if (bitsets[c] != null) return (bitsets[c][low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch(arrays[c], 0, counts[c], low) >= 0;
+    }
+
+    long cardinality() {
+        long total = 0;
+        for (int c = 0; c < size; c++) total += counts[c];
+        return total;
+    }
+
+    // Calls action for every value in ascending order
+    void forEach(IntConsumer action) {
+        for (int c = 0; c < size; c++) {
+            int high = keys[c] << 16;
+            if (bitsets[c] != null) {
+                long[] bits = bitsets[c];
+                for (int w = 0; w < WORDS; w++) {
+                    long word = bits[w];
+                    while (word != 0) {
+                        action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                for (int i = 0; i < counts[c]; i++) action.accept(high | arrays[c][i]);
+            }
+        }
+    }
+
+    // ===== Set operations =====
+    static Bitmap and(Bitmap a, Bitmap b) {
+        Bitmap result = new Bitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) { i++; continue; }
+            if (a.keys[i] > b.keys[j]) { j++; continue; }
+            int key = a.keys[i];
+            if (a.bitsets[i] != null && b.bitsets[j] != null) {
+                long[] bits = new long[WORDS];
+                int count = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    bits[w] = a.bitsets[i][w] & b.bitsets[j][w];
+                    count += Long.bitCount(bits[w]);
+                }
+                if (count > 0) result.append(key, bits, count);
+            } else {
+                // At least one side is a short array: probe its values in the other
+                Bitmap small = a.bitsets[i] == null ? a : b;
+                int s = small == a ? i : j;
+                Bitmap other = small == a ? b : a;
+                int high = key << 16;
+                for (int k = 0; k < small.counts[s]; k++) {
+                    int value = high | small.arrays[s][k];
+                    if (other.contains(value)) result.add(value);
+                }
+            }
+            i++;
+            j++;
+        }
+        return result;
+    }
+
+    // Values of a that aren't in b
+    static Bitmap andNot(Bitmap a, Bitmap b) {
+        Bitmap result = new Bitmap();
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            int key = a.keys[i];
+            while (j < b.size && b.keys[j] < key) j++;
+            boolean shared = j < b.size && b.keys[j] == key;
+            if (a.bitsets[i] != null) {
+                long[] bits = a.bitsets[i].clone();
+                if (shared && b.bitsets[j] != null) {
+                    for (int w = 0; w < WORDS; w++) bits[w] &= ~b.bitsets[j][w];
+                } else if (shared) {
+                    for (int k = 0; k < b.counts[j]; k++) bits[b.arrays[j][k] >>> 6] &= ~(1L << b.arrays[j][k]);
+                }
+                int count = 0;
+                for (int w = 0; w < WORDS; w++) count += Long.bitCount(bits[w]);
+                if (count > 0) result.append(key, bits, count);
+            } else {
+                int high = key << 16;
+                for (int k = 0; k < a.counts[i]; k++) {
+                    int value = high | a.arrays[i][k];
+                    if (!shared || !b.contains(value)) result.add(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    static Bitmap or(Bitmap a, Bitmap b) {
+        Bitmap result = new Bitmap();
+        a.forEach(result::add);
+        b.forEach(result::add);
+        return result;
+    }
+
+    // Adds a finished container after the last one, as an array if it has ARRAY_MAX values or fewer
+    void append(int key, long[] bits, int count) {
+        int c = insertContainer(size, key);
+        counts[c] = count;
+        if (count > ARRAY_MAX) {
+            arrays[c] = null;
+            bitsets[c] = bits;
+            return;
+        }
+        char[] array = new char[Math.max(count, 4)];
+        int n = 0;
+        for (int w = 0; w < WORDS; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                array[n++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+            }
+        }
+        arrays[c] = array;
+    }
+
+    // ===== Serialization =====
+    // containers | per container: key, count, bitset flag, then count chars or WORDS longs
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        for (int c = 0; c < size; c++) {
+            out.writeInt(keys[c]);
+            out.writeInt(counts[c]);
+            out.writeBoolean(bitsets[c] != null);
+            if (bitsets[c] != null) {
+                for (long word : bitsets[c]) out.writeLong(word);
+            } else {
+                for (int i = 0; i < counts[c]; i++) out.writeChar(arrays[c][i]);
+            }
+        }
+    }
+
+    static Bitmap readFrom(DataInputStream in) throws IOException {
+        Bitmap bitmap = new Bitmap();
+        int containers = in.readInt();
+        for (int c = 0; c < containers; c++) {
+            int key = in.readInt();
+            int count = in.readInt();
+            int at = bitmap.insertContainer(bitmap.size, key);
+            bitmap.counts[at] = count;
+            if (in.readBoolean()) {
+                long[] bits = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) bits[w] = in.readLong();
+                bitmap.arrays[at] = null;
+                bitmap.bitsets[at] = bits;
+            } else {
+                char[] array = new char[Math.max(count, 4)];
+                for (int i = 0; i < count; i++) array[i] = in.readChar();
+                bitmap.arrays[at] = array;
+            }
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Bitmap and GameEventIndex checks: java BitmapTest (see Checks).
+ * Every result is compared with a java.util.BitSet holding the same values.
+ */
+public class BitmapTest extends Checks {
+
+    static boolean same(Bitmap bitmap, BitSet expected) {
+        BitSet values = new BitSet();
+        int[] last = {-1};
+        boolean[] ordered = {true};
+        bitmap.forEach(v -> {
+            ordered[0] &= v > last[0];
+            last[0] = v;
+            values.set(v);
+        });
+        return ordered[0] && values.equals(expected) && bitmap.cardinality() == expected.cardinality() && compact(bitmap);
+    }
+
+    // Containers are arrays up to ARRAY_MAX values and bitsets past it
+    static boolean compact(Bitmap bitmap) {
+        for (int c = 0; c < bitmap.size; c++) {
+            if ((bitmap.bitsets[c] != null) != (bitmap.counts[c] > Bitmap.ARRAY_MAX)) return false;
+        }
+        return true;
+    }
+
+    static void add(Bitmap bitmap, BitSet expected, int value) {
+        bitmap.add(value);
+        expected.set(value);
+    }
+
+    // A container stays an array up to ARRAY_MAX values and turns into a bitset at one more
+    static void transition() {
+        Bitmap bitmap = new Bitmap();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < Bitmap.ARRAY_MAX; i++) add(bitmap, expected, (1 << 16) + i * 7);
+        add(bitmap, expected, (1 << 16) + 3); // already-sorted fast path not taken
+        bitmap.add((1 << 16) + 7);            // duplicate
+        check(bitmap.bitsets[0] != null, "container is a bitset past " + Bitmap.ARRAY_MAX + " values");
+
+        bitmap = new Bitmap();
+        expected = new BitSet();
+        for (int i = Bitmap.ARRAY_MAX - 1; i >= 0; i--) add(bitmap, expected, i * 3);
+        check(bitmap.arrays[0] != null && bitmap.counts[0] == Bitmap.ARRAY_MAX, "container is still an array at " + Bitmap.ARRAY_MAX);
+        check(same(bitmap, expected), "array container built backwards");
+        add(bitmap, expected, 1);
+        check(bitmap.bitsets[0] != null && bitmap.counts[0] == Bitmap.ARRAY_MAX + 1, "container turns into a bitset at " + (Bitmap.ARRAY_MAX + 1));
+        check(same(bitmap, expected), "values survive the switch");
+        for (int v = 0; v < 100; v++) check(bitmap.contains(v) == expected.get(v), "bitset contains " + v);
+    }
+
+    // Containers: key 0 array / bitset, 1 bitset / array, 2 only in b, 3 only in a, 4 array / array, 5-7 bitset / bitset
+    // (6 and 7 leave few enough values after and / andNot for an array)
+    static void setOperations() {
+        SplittableRandom rnd = new SplittableRandom(18);
+        Bitmap a = new Bitmap();
+        Bitmap b = new Bitmap();
+        BitSet ea = new BitSet();
+        BitSet eb = new BitSet();
+        int[][] sizes = {{300, 9000}, {20000, 500}, {0, 40}, {60, 0}, {1000, 1000}, {30000, 30000}, {5000, 5000}, {5000, 20000}};
+        for (int key = 0; key < sizes.length; key++) {
+            for (int k = 0; k < sizes[key][0]; k++) add(a, ea, key << 16 | rnd.nextInt(1 << 16));
+            for (int k = 0; k < sizes[key][1]; k++) add(b, eb, key << 16 | rnd.nextInt(1 << 16));
+        }
+        check(a.bitsets[0] == null && b.bitsets[0] != null && a.bitsets[1] != null && b.bitsets[1] == null,
+                "operands mix array and bitset containers");
+        check(same(a, ea) && same(b, eb), "operands hold what was added");
+
+        BitSet and = (BitSet) ea.clone();
+        and.and(eb);
+        BitSet or = (BitSet) ea.clone();
+        or.or(eb);
+        BitSet aNotB = (BitSet) ea.clone();
+        aNotB.andNot(eb);
+        BitSet bNotA = (BitSet) eb.clone();
+        bNotA.andNot(ea);
+
+        check(same(Bitmap.and(a, b), and), "a and b");
+        check(same(Bitmap.and(b, a), and), "b and a");
+        check(same(Bitmap.or(a, b), or), "a or b");
+        check(same(Bitmap.andNot(a, b), aNotB), "a andNot b");
+        check(same(Bitmap.andNot(b, a), bNotA), "b andNot a");
+        check(Bitmap.andNot(a, a).cardinality() == 0, "a andNot a is empty");
+        check(same(Bitmap.andNot(a, new Bitmap()), ea), "a andNot empty is a");
+    }
+
+    static void serialization() throws Exception {
+        Bitmap bitmap = new Bitmap();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 5000; i++) add(bitmap, expected, i * 2);           // bitset
+        for (int i = 0; i < 10; i++) add(bitmap, expected, (3 << 16) + i);    // array
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bitmap.writeTo(new DataOutputStream(bytes));
+        Bitmap back = Bitmap.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        check(same(back, expected), "bitmap reads back");
+        add(back, expected, (3 << 16) + 100);
+        check(same(back, expected), "read-back array container still grows");
+    }
+
+    // Queries over marked games match a scan of the same event bits
+    static void eventQueries() {
+        SplittableRandom rnd = new SplittableRandom(180);
+        GameEventIndex index = new GameEventIndex();
+        int games = 200_000;
+        int[] bits = new int[games];
+        for (int n = 0; n < games; n++) {
+            // Rare, common and in-between events, so the bitmaps mix both kinds of container
+            if (rnd.nextInt(1000) == 0) bits[n] |= 1 << GameEventIndex.SORRY_BUMP_ON_HOME_ENTRY;
+            if (rnd.nextInt(3) == 0) bits[n] |= 1 << GameEventIndex.SLIDE_DOUBLE_BUMP;
+            if (rnd.nextInt(20) == 0) bits[n] |= 1 << GameEventIndex.WINNER_SAVED_SORRY_UNUSED;
+            if (rnd.nextInt(2) == 0) bits[n] |= 1 << GameEventIndex.UNFINISHED;
+            index.mark(n, bits[n]);
+        }
+        int[][] with = {{1}, {1, 3}, {0, 1}, {2}};
+        int[][] without = {{3}, {2}, {}, {0, 1, 3}};
+        for (int q = 0; q < with.length; q++) {
+            BitSet expected = new BitSet();
+            for (int n = 0; n < games; n++) {
+                boolean match = true;
+                for (int e : with[q]) match &= (bits[n] & 1 << e) != 0;
+                for (int e : without[q]) match &= (bits[n] & 1 << e) == 0;
+                if (match) expected.set(n);
+            }
+            check(same(index.query(with[q], without[q]), expected), "event query " + q);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        transition();
+        setOperations();
+        serialization();
+        eventQueries();
+        finish("bitmap");
+    }
+}
@@ -0,0 +1,249 @@
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Draws the 16x16 board and pawn status table with one write per frame.
+ * - Every possible "[cell]" (each square's label x each pawn token, or no pawn) is
+ *   precomputed once as ASCII bytes.
+ * - Each frame is composed into one reused byte buffer and flushed with a single write,
+ *   instead of 256 print calls building new Strings.
+ * Output matches SorryGood's old printGrid(upperGrid) + pawn status table byte for byte.
+ *
+ * ANSI mode (renderDiff) keeps the board pinned to the top of the terminal: the first frame
+ * is drawn in full and the lines below it become the scrolling region for the narration.
+ * Later frames only rewrite the cells and status lines whose pawns changed, using cursor
+ * positioning, which is a few dozen bytes for a typical move instead of ~4 KB.
+ */
+public class BoardRenderer {
+
+    static final int SIZE = SorryGood.SIZE;
+    static final int CELLS = SIZE * SIZE;
+    static final int PAWNS = GameEngine.PLAYERS * GameEngine.PAWNS_PER_PLAYER;
+    static final int VARIANTS = PAWNS + 1;  // 0 = empty square, 1 + player * 4 + pawn = that pawn
+    static final int CELL_BYTES = 14;       // '[' + 12 chars + ']'
+    static final int POSITIONS = GameEngine.HOME_POS + 2; // -1..65
+
+    // cellText[(cell * VARIANTS + variant) * CELL_BYTES ...]
+    byte[] cellText = new byte[CELLS * VARIANTS * CELL_BYTES];
+
+    // Grid cell a pawn is drawn in, by [player][pos + 1]; -1 for Start
+    int[][] cellOf = new int[GameEngine.PLAYERS][POSITIONS];
+
+    // Status table pieces
+    byte[][] positionText = new byte[POSITIONS][];
+    byte[][] playerPrefix = new byte[GameEngine.PLAYERS][];
+    byte[] statusHeader = ascii("\n=== PAWN STATUS ===\n");
+    byte[] statusFooter = ascii("===================\n\n");
+
+    // Overlay for the frame being drawn, reused
+    int[] variant = new int[CELLS];
+
+    byte[] frame = new byte[8192];
+    int length = 0;
+
+    // ANSI diff state: what is on screen now
+    static final int STATUS_TOP = SIZE + 3;             // screen line of the first player's status (1-based)
+    static final int FRAME_LINES = SIZE + 8;            // grid + status block, incl. blank lines
+    boolean onScreen = false;
+    int[] shownVariant = new int[CELLS];
+    int[] shownPosition = new int[PAWNS];
+
+    // Call after SorryGood.initTrack() and initBaseGrid()
+    BoardRenderer() {
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                int cell = r * SIZE + c;
+                String base = SorryGood.baseGrid[r][c];
+                putCell(cell, 0, base);
+                for (int id = 0; id < PAWNS; id++) {
+                    int p = id / GameEngine.PAWNS_PER_PLAYER;
+                    String token = "" + SorryGood.PLAYER_LETTER[p] + (id % GameEngine.PAWNS_PER_PLAYER + 1);
+                    putCell(cell, id + 1, SorryGood.makeCell(SorryGood.label2FromCell(base), token));
+                }
+            }
+        }
+
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            cellOf[p][0] = -1;
+            for (int pos = 0; pos <= GameEngine.HOME_POS; pos++) {
+                int cell;
+                if (pos < GameEngine.BOARD_SIZE) {
+                    cell = SorryGood.trackRow[pos] * SIZE + SorryGood.trackColumn[pos];
+                } else if (pos < GameEngine.HOME_POS) {
+                    int hs = pos - GameEngine.BOARD_SIZE;
+                    cell = SorryGood.homeRow[p][hs] * SIZE + SorryGood.homeCol[p][hs];
+                } else {
+                    cell = SorryGood.homeCellRow[p] * SIZE + SorryGood.homeCellCol[p];
+                }
+                cellOf[p][pos + 1] = cell;
+            }
+            playerPrefix[p] = ascii(SorryGood.PLAYER_COLORS[p] + ": ");
+        }
+
+        // The Home cell is labelled "HM" once a pawn is on it, whatever the base grid says
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            int cell = cellOf[p][GameEngine.HOME_POS + 1];
+            for (int pawn = 0; pawn < GameEngine.PAWNS_PER_PLAYER; pawn++) {
+                int id = p * GameEngine.PAWNS_PER_PLAYER + pawn;
+                putCell(cell, id + 1, SorryGood.makeCell("HM", "" + SorryGood.PLAYER_LETTER[p] + (pawn + 1)));
+            }
+        }
+
+        for (int pos = GameEngine.START; pos <= GameEngine.HOME_POS; pos++) {
+            positionText[pos + 1] = ascii("[" + SorryGood.getPositionDescription(0, pos) + "] ");
+        }
+    }
+
+    static byte[] ascii(String s) {
+        byte[] b = new byte[s.length()];
+        for (int i = 0; i < b.length; i++) b[i] = (byte) s.charAt(i);
+        return b;
+    }
+
+    void putCell(int cell, int v, String text12) {
+        int at = (cell * VARIANTS + v) * CELL_BYTES;
+        cellText[at] = '[';
+        for (int i = 0; i < 12; i++) cellText[at + 1 + i] = (byte) text12.charAt(i);
+        cellText[at + 13] = ']';
+    }
+
+    void append(byte[] b) {
+        System.arraycopy(b, 0, frame, length, b.length);
+        length += b.length;
+    }
+
+    // Which pawn (if any) each grid cell shows; later pawns win, like the old overlay loop
+    void overlay(GameEngine game) {
+        for (int i = 0; i < CELLS; i++) variant[i] = 0;
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            for (int pawn = 0; pawn < GameEngine.PAWNS_PER_PLAYER; pawn++) {
+                int cell = cellOf[p][game.pawnPositions[p][pawn] + 1];
+                if (cell >= 0) variant[cell] = 1 + p * GameEngine.PAWNS_PER_PLAYER + pawn;
+            }
+        }
+    }
+
+    // Composes the board + pawn status into the frame buffer; returns its length
+    int compose(GameEngine game) {
+        overlay(game);
+        length = 0;
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                int cell = r * SIZE + c;
+                System.arraycopy(cellText, (cell * VARIANTS + variant[cell]) * CELL_BYTES, frame, length, CELL_BYTES);
+                length += CELL_BYTES;
+            }
+            frame[length++] = '\n';
+        }
+
+        append(statusHeader);
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            appendStatusLine(game, p);
+            frame[length++] = '\n';
+        }
+        append(statusFooter);
+        return length;
+    }
+
+    void appendNumber(int n) {
+        if (n >= 10) appendNumber(n / 10);
+        frame[length++] = (byte) ('0' + n % 10);
+    }
+
+    // ESC [ row ; col H  (1-based)
+    void appendCursor(int row, int col) {
+        frame[length++] = 27;
+        frame[length++] = '[';
+        appendNumber(row);
+        frame[length++] = ';';
+        appendNumber(col);
+        frame[length++] = 'H';
+    }
+
+    void appendEscape(String seq) {
+        frame[length++] = 27;
+        for (int i = 0; i < seq.length(); i++) frame[length++] = (byte) seq.charAt(i);
+    }
+
+    void appendStatusLine(GameEngine game, int p) {
+        append(playerPrefix[p]);
+        for (int pawn = 0; pawn < GameEngine.PAWNS_PER_PLAYER; pawn++) {
+            append(positionText[game.pawnPositions[p][pawn] + 1]);
+        }
+    }
+
+    // Composes only what changed since the last frame on screen; returns the byte count
+    int composeDiff(GameEngine game) {
+        if (!onScreen) {
+            // Clear screen, draw everything at the top, then scroll only the lines below the board
+            compose(game);
+            byte[] full = new byte[length];
+            System.arraycopy(frame, 0, full, 0, length);
+            length = 0;
+            appendEscape("[2J");
+            appendCursor(1, 1);
+            append(full);
+            appendEscape("[" + (FRAME_LINES + 1) + "r");
+            appendCursor(FRAME_LINES + 1, 1);
+            System.arraycopy(variant, 0, shownVariant, 0, CELLS);
+            rememberPositions(game);
+            onScreen = true;
+            return length;
+        }
+
+        overlay(game);
+        length = 0;
+        appendEscape("7"); // save cursor (it is somewhere in the narration)
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (variant[cell] == shownVariant[cell]) continue;
+            appendCursor(cell / SIZE + 1, (cell % SIZE) * CELL_BYTES + 1);
+            System.arraycopy(cellText, (cell * VARIANTS + variant[cell]) * CELL_BYTES, frame, length, CELL_BYTES);
+            length += CELL_BYTES;
+            shownVariant[cell] = variant[cell];
+        }
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            boolean changed = false;
+            for (int pawn = 0; pawn < GameEngine.PAWNS_PER_PLAYER; pawn++) {
+                if (shownPosition[p * GameEngine.PAWNS_PER_PLAYER + pawn] != game.pawnPositions[p][pawn]) changed = true;
+            }
+            if (!changed) continue;
+            appendCursor(STATUS_TOP + p, 1);
+            appendStatusLine(game, p);
+            appendEscape("[K"); // clear what's left of a longer old line
+        }
+        rememberPositions(game);
+        appendEscape("8"); // back to the narration
+        return length;
+    }
+
+    void rememberPositions(GameEngine game) {
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            for (int pawn = 0; pawn < GameEngine.PAWNS_PER_PLAYER; pawn++) {
+                shownPosition[p * GameEngine.PAWNS_PER_PLAYER + pawn] = game.pawnPositions[p][pawn];
+            }
+        }
+    }
+
+    void renderDiff(GameEngine game, OutputStream out) throws IOException {
+        composeDiff(game);
+        out.write(frame, 0, length);
+        out.flush();
+    }
+
+    // Give the terminal its whole screen back for scrolling
+    void releaseScreen(OutputStream out) throws IOException {
+        if (!onScreen) return;
+        length = 0;
+        appendEscape("[r");
+        appendCursor(999, 1);
+        out.write(frame, 0, length);
+        out.flush();
+        onScreen = false;
+    }
+
+    void render(GameEngine game, OutputStream out) throws IOException {
+        compose(game);
+        out.write(frame, 0, length);
+        out.flush();
+    }
+}
@@ -0,0 +1,12 @@
+import java.util.SplittableRandom;
+
+/**
+ * A computer player: picks one of the legal moves the engine listed for the current player.
+ * Implementations may keep scratch state, so each simulation worker gets its own instances.
+ */
+public interface Bot {
+
+    // card is the drawn card, or GameEngine.SAVED_SORRY_CARD for the saved Sorry! question.
+    // Returns an index into moves.
+    int chooseMove(GameEngine game, int card, MoveBuffer moves, SplittableRandom rnd);
+}
@@ -0,0 +1,78 @@
+import java.util.SplittableRandom;
+
+/**
+ * Lets a Bot sit at the console game: when a card is drawn the bot picks one move from
+ * MoveGenerator, and the menu questions that follow are answered from that move.
+ */
+public class BotController implements PlayerController {
+
+    Bot bot;
+    SplittableRandom rnd;
+    MoveBuffer moves = new MoveBuffer();
+
+    int move = Move.of(Move.PASS); // move chosen for the current card
+    int pawnAnswers = 0;           // how many choosePawn() calls this card has answered
+
+    BotController(Bot bot, SplittableRandom rnd) {
+        this.bot = bot;
+        this.rnd = rnd;
+    }
+
+    @Override
+    public void startTurn(GameEngine game, int player, int card) {
+        if (card == GameEngine.SAVED_SORRY_CARD) MoveGenerator.generateSavedSorryMoves(game, moves);
+        else MoveGenerator.generateMoves(game, card, moves);
+        // Bots search by playing moves on the live engine and taking them back: keep listeners out of it
+        GameEvents events = game.events;
+        game.events = null;
+        try {
+            move = moves.get(bot.chooseMove(game, card, moves, rnd));
+        } finally {
+            game.events = events;
+        }
+        pawnAnswers = 0;
+    }
+
+    @Override
+    public int chooseAction(GameEngine game, int player, int card) {
+        int kind = Move.kind(move);
+        if (card == GameEngine.SAVED_SORRY_CARD) return kind == Move.SORRY ? 1 : 0;
+        switch (card) {
+            case 1:
+            case 2:
+                return kind == Move.FROM_START ? 1 : 2;
+            case 7:
+                return kind == Move.SPLIT ? 2 : 1;
+            case 10:
+                return kind == Move.STEP && Move.spaces(move) < 0 ? 2 : 1;
+            case 11:
+                return kind == Move.SWITCH ? 2 : 1;
+            case 13:
+                return kind == Move.SORRY ? 1 : 2;
+            default:
+                return 1;
+        }
+    }
+
+    @Override
+    public int choosePawn(GameEngine game, int player) {
+        int kind = Move.kind(move);
+        if (kind == Move.PASS) return -1;
+        int answer = pawnAnswers == 0 ? Move.pawn(move) : Move.otherPawn(move);
+        pawnAnswers++;
+        return answer;
+    }
+
+    @Override
+    public int chooseSplit(GameEngine game, int player) {
+        return Move.spaces(move);
+    }
+
+    @Override
+    public int chooseTarget(GameEngine game, int player, int[] tPlayer, int[] tPawn, int tCount) {
+        for (int i = 0; i < tCount; i++) {
+            if (tPlayer[i] == Move.otherPlayer(move) && tPawn[i] == Move.otherPawn(move)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,30 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Direct ByteBuffers of one size, reused instead of allocated per connection or per message.
+ * A connection holds one only while it has bytes waiting, so thousands of idle connections
+ * share a few buffers. Not thread-safe: one pool per selector thread.
+ */
+public class BufferPool {
+
+    int bufferBytes;
+    ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    int created = 0;
+
+    BufferPool(int bufferBytes) { this.bufferBytes = bufferBytes; }
+
+    ByteBuffer take() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(bufferBytes);
+            created++;
+        }
+        return buffer;
+    }
+
+    void give(ByteBuffer buffer) {
+        buffer.clear();
+        free.push(buffer);
+    }
+}
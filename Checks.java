@@ -0,0 +1,21 @@
+/**
+ * The checks are plain mains (no test framework in this repo), e.g. java RulesTest.
+ * Each extends this, reports failures with check() and ends with finish(), which exits
+ * with status 1 if any check failed.
+ */
+public class Checks {
+
+    static int failures = 0;
+
+    static void check(boolean ok, String what) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAIL " + what);
+        }
+    }
+
+    static void finish(String what) {
+        System.out.println(failures == 0 ? "All " + what + " checks passed" : failures + " " + what + " check(s) failed");
+        if (failures > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,14 @@
+import java.util.Scanner;
+
+/**
+ * Reads answers typed at the console. All seats can share one instance (hot-seat play).
+ */
+public class ConsoleController extends IntInputController {
+
+    Scanner sc;
+
+    ConsoleController(Scanner sc) { this.sc = sc; }
+
+    @Override
+    int nextInt() { return sc.nextInt(); }
+}
@@ -0,0 +1,45 @@
+import java.io.PrintStream;
+
+/**
+ * Narrates GameEvents to the console, the way SorryGood used to print each move itself.
+ */
+public class ConsoleNarrator implements GameEvents.Listener {
+
+    static final int BOARD_SIZE = GameEngine.BOARD_SIZE;
+
+    PrintStream out;
+
+    ConsoleNarrator(PrintStream out) { this.out = out; }
+
+    @Override
+    public void onEvent(int event) {
+        int pawn = GameEvents.pawn(event) + 1;
+        int from = GameEvents.from(event);
+        int to = GameEvents.to(event);
+        switch (GameEvents.type(event)) {
+            case GameEvents.MOVED:
+                if (to == GameEngine.HOME_POS || (to >= BOARD_SIZE && from < BOARD_SIZE)) break; // told below
+                if (from == GameEngine.START) out.println("Pawn " + pawn + " moved from Start to position " + to);
+                else if (to >= BOARD_SIZE) out.println("Pawn " + pawn + " moved in home stretch to position " + (to - BOARD_SIZE));
+                else out.println("Pawn " + pawn + " moved to position " + to);
+                break;
+            case GameEvents.BUMPED:
+                String color = SorryGood.PLAYER_COLORS[GameEvents.player(event)];
+                if (GameEvents.bySlide(event)) out.println(color + "'s pawn bumped by slide!");
+                else out.println("BUMP! " + color + "'s pawn sent back to Start!");
+                break;
+            case GameEvents.SLID:
+                out.println("SLIDE! Moved to position " + to);
+                break;
+            case GameEvents.SWITCHED:
+                out.println("Switched positions! You are now at " + to);
+                break;
+            case GameEvents.ENTERED_HOME_STRETCH:
+                out.println("Pawn " + pawn + " entered home stretch at position " + (to - BOARD_SIZE));
+                break;
+            case GameEvents.REACHED_HOME:
+                out.println("Pawn " + pawn + " reached HOME!");
+                break;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * The 44-card Sorry! deck: a draw order plus how many of each CARD_TYPES entry are left.
+ * - left(card) and probability(card) are a single lookup, so search code can weight chance
+ *   nodes without scanning the undrawn cards.
+ * - The shuffle is lazy: each draw swaps a random undrawn card into place (one Fisher-Yates
+ *   step). The order array always holds all 44 cards, so reshuffling an empty deck is just
+ *   marking them all undrawn again.
+ * - sample() picks a random undrawn card with the same odds as the next draw, without drawing it.
+ */
+public class Deck {
+
+    static final int SIZE = GameEngine.DECK_SIZE;
+    static final int TYPES = GameEngine.CARD_TYPES.length;
+    static final int COPIES = SIZE / TYPES;
+
+    int[] cards = new int[SIZE]; // cards[0..drawn) in the order drawn; the rest undrawn, in no particular order
+    int drawn = 0;
+    int[] left = new int[TYPES]; // undrawn copies per CARD_TYPES entry
+
+    Deck() { initialize(); }
+
+    // A fresh deck in card order. The lazy shuffle leaves cards in the order they were drawn,
+    // so a new game starts from here for its draws to depend on its seed alone.
+    void initialize() {
+        int idx = 0;
+        for (int t = 0; t < TYPES; t++) {
+            for (int k = 0; k < COPIES; k++) {
+                cards[idx++] = GameEngine.CARD_TYPES[t];
+            }
+        }
+        reset();
+    }
+
+    // Put every card back (O(card types), the cards themselves don't move)
+    void reset() {
+        drawn = 0;
+        for (int t = 0; t < TYPES; t++) left[t] = COPIES;
+    }
+
+    boolean isEmpty() { return drawn == SIZE; }
+
+    int remaining() { return SIZE - drawn; }
+
+    int left(int card) { return left[GameEngine.CARD_INDEX[card]]; }
+
+    // Chance that the next draw is card; an empty deck is reshuffled first, so that's a full deck's odds
+    double probability(int card) {
+        if (isEmpty()) return (double) COPIES / SIZE;
+        return (double) left(card) / remaining();
+    }
+
+    // Reshuffles first if empty
+    int draw(RandomGenerator rnd) {
+        if (isEmpty()) reset();
+        int j = drawn + rnd.nextInt(SIZE - drawn);
+        int card = cards[j];
+        cards[j] = cards[drawn];
+        cards[drawn++] = card;
+        left[GameEngine.CARD_INDEX[card]]--;
+        return card;
+    }
+
+    // A card with the next draw's odds, left in the deck
+    int sample(RandomGenerator rnd) {
+        if (isEmpty()) return GameEngine.CARD_TYPES[rnd.nextInt(TYPES)];
+        return cards[drawn + rnd.nextInt(SIZE - drawn)];
+    }
+
+    // Put back every card drawn since the first n (search/undo code)
+    void rewind(int n) {
+        drawn = n;
+        for (int t = 0; t < TYPES; t++) left[t] = 0;
+        for (int i = n; i < SIZE; i++) left[GameEngine.CARD_INDEX[cards[i]]]++;
+    }
+
+    void copyFrom(Deck other) {
+        System.arraycopy(other.cards, 0, cards, 0, SIZE);
+        System.arraycopy(other.left, 0, left, 0, TYPES);
+        drawn = other.drawn;
+    }
+}
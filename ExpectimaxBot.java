@@ -0,0 +1,174 @@
+import java.util.SplittableRandom;
+
+/**
+ * Depth-limited expectimax player with *-minimax (Star1) pruning.
+ * - Chance nodes branch over the 11 CARD_TYPES, weighted by how many of each are left in
+ *   the deck (a fresh deck once it runs out).
+ * - Decision nodes branch over MoveGenerator's moves. The search is paranoid: the bot
+ *   maximizes GreedyBot.score for itself and every opponent is assumed to minimize it,
+ *   which keeps values in a fixed window so chance nodes can be cut off early.
+ * - Chance node results go in a TranspositionTable, because many move orders (split 7s,
+ *   bump/slide combinations) reach the same pawn layout with the same cards left.
+ *   The key is the engine's incremental Zobrist hash, adjusted for the cards drawn in the search.
+ * Depth counts decisions; a 2 counts as one even though the same player draws again.
+ * Saved Sorry! cards are only played at the root; deeper in the tree they only score.
+ */
+public class ExpectimaxBot implements Bot {
+
+    static final int WIN = 1000;          // beyond any GreedyBot.score
+    static final int TYPES = GameEngine.CARD_TYPES.length;
+    static final int COPIES = GameEngine.DECK_SIZE / TYPES;
+
+    // Shared by every ExpectimaxBot (all simulation workers); 1M slots = 16 MB
+    static final TranspositionTable SHARED_TABLE = new TranspositionTable(20);
+
+    int maxDepth;
+    TranspositionTable table;
+
+    // Search state
+    GameEngine game;
+    int root;
+    int[] counts = new int[TYPES]; // cards of each type left in the deck
+    int remaining;
+    long deckDelta;                // XOR between the Zobrist deck keys of counts and of the real deck
+    PackedState[] saved;
+    MoveBuffer[] moveLists;
+
+    long nodes = 0;
+
+    ExpectimaxBot(int maxDepth, TranspositionTable table) {
+        this.maxDepth = maxDepth;
+        this.table = table;
+        saved = new PackedState[maxDepth + 1];
+        moveLists = new MoveBuffer[maxDepth + 1];
+        for (int i = 0; i <= maxDepth; i++) {
+            saved[i] = new PackedState();
+            moveLists[i] = new MoveBuffer();
+        }
+    }
+
+    @Override
+    public int chooseMove(GameEngine game, int card, MoveBuffer moves, SplittableRandom rnd) {
+        if (moves.size() == 1) return 0;
+        this.game = game;
+        root = game.currentPlayer;
+
+        System.arraycopy(game.deck.left, 0, counts, 0, TYPES);
+        remaining = game.deck.remaining();
+        deckDelta = 0;
+
+        PackedState before = saved[0];
+        before.capture(game);
+        int best = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            double value;
+            if (card == GameEngine.SAVED_SORRY_CARD && Move.kind(move) == Move.PASS) {
+                value = chance(root, maxDepth - 1, Math.max(bestValue, -WIN), WIN, 1); // declined: draw as usual
+            } else {
+                if (card == GameEngine.SAVED_SORRY_CARD) game.useSavedSorryCard(root);
+                value = afterMove(root, card, move, maxDepth - 1, Math.max(bestValue, -WIN), WIN, 1);
+            }
+            before.restore(game);
+            // Strictly better only: a pruned move can come back equal to the best so far
+            if (value > bestValue) {
+                bestValue = value;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // Applies move for player and scores what follows; the caller restores the game
+    double afterMove(int player, int card, int move, int depth, double alpha, double beta, int ply) {
+        game.applyMove(player, move);
+        if (game.checkWin(player)) return player == root ? WIN : -WIN;
+        int next = card == 2 ? player : (player + 1) % GameEngine.PLAYERS;
+        return chance(next, depth, alpha, beta, ply);
+    }
+
+    // Expected value of player drawing the next card
+    double chance(int player, int depth, double alpha, double beta, int ply) {
+        nodes++;
+        game.setCurrentPlayer(player);
+        if (depth == 0) return GreedyBot.score(game, root);
+
+        long key = game.hash ^ deckDelta ^ ((long) root << 62);
+        long data = table.probe(key);
+        if (data != TranspositionTable.MISS && TranspositionTable.depth(data) >= depth) {
+            double v = TranspositionTable.value(data);
+            int bound = TranspositionTable.bound(data);
+            if (bound == TranspositionTable.EXACT) return v;
+            if (bound == TranspositionTable.LOWER && v >= beta) return v;
+            if (bound == TranspositionTable.UPPER && v <= alpha) return v;
+        }
+
+        // An empty deck is reshuffled whole before the draw
+        boolean refilled = remaining == 0;
+        if (refilled) setAllCounts(COPIES);
+
+        // Star1: after each card, check whether the cards still to come could bring the
+        // average back inside (alpha, beta) even if every one scored WIN (or -WIN)
+        double sum = 0;
+        double probLeft = 1;
+        double result = Double.NaN;
+        int bound = TranspositionTable.EXACT;
+        int total = remaining;
+        for (int t = 0; t < TYPES; t++) {
+            if (counts[t] == 0) continue;
+            double p = (double) counts[t] / total;
+            probLeft -= p;
+            double low = (alpha - sum - WIN * probLeft) / p;
+            double high = (beta - sum + WIN * probLeft) / p;
+
+            draw(t, -1);
+            double v = decide(player, GameEngine.CARD_TYPES[t], depth, Math.max(low, -WIN), Math.min(high, WIN), ply);
+            draw(t, 1);
+
+            if (v <= low) { result = alpha; bound = TranspositionTable.UPPER; break; }
+            if (v >= high) { result = beta; bound = TranspositionTable.LOWER; break; }
+            sum += p * v;
+        }
+        if (Double.isNaN(result)) result = sum;
+
+        if (refilled) setAllCounts(0);
+        table.store(key, (float) result, depth, bound);
+        return result;
+    }
+
+    // Best move for player with card: max for the bot, min for everyone else
+    double decide(int player, int card, int depth, double alpha, double beta, int ply) {
+        MoveBuffer moves = moveLists[ply];
+        MoveGenerator.generateMoves(game, card, moves);
+        PackedState before = saved[ply];
+        before.capture(game);
+
+        boolean maximizing = player == root;
+        double best = maximizing ? -WIN : WIN;
+        for (int i = 0; i < moves.size(); i++) {
+            double v = afterMove(player, card, moves.get(i), depth - 1, alpha, beta, ply + 1);
+            before.restore(game);
+            if (maximizing) {
+                if (v > best) best = v;
+                if (best > alpha) alpha = best;
+            } else {
+                if (v < best) best = v;
+                if (best < beta) beta = best;
+            }
+            if (alpha >= beta) break;
+        }
+        return best;
+    }
+
+    // The search draws from counts, not the engine's deck, so it keeps the deck part of the key itself
+    void draw(int type, int change) {
+        deckDelta ^= Zobrist.deck(type, counts[type]) ^ Zobrist.deck(type, counts[type] + change);
+        counts[type] += change;
+        remaining += change;
+    }
+
+    void setAllCounts(int copies) {
+        for (int t = 0; t < TYPES; t++) draw(t, copies - counts[t]);
+    }
+}
@@ -0,0 +1,147 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Read-only, memory-mapped view of a game archive (see GameArchiveWriter for the layout).
+ * - game(n) finds game n through the offset index: a session lookup (a handful of sessions),
+ *   one index read and a slice of the mapping. No earlier game is parsed.
+ * - The slice is a view of the mapped file, not a copy; read(n, record) decodes from it and
+ *   the record can be replayed straight through the engine.
+ * - Files over 2 GB are mapped as overlapping windows: each window reaches MAX_GAME_BYTES
+ *   past the next one's start, so every game and index entry lies inside a single window.
+ *
+ * Usage: java SorryGood archive games.sarc [n]   (summary, or replay game n)
+ */
+public class GameArchive {
+
+    static final long WINDOW = 1L << 30;
+    static final long OVERLAP = GameArchiveWriter.MAX_GAME_BYTES;
+
+    FileChannel channel;
+    MappedByteBuffer[] windows;
+    long size;
+
+    // Sessions, oldest first
+    long[] sessionFirst;
+    long[] sessionGames;
+    long[] sessionIndex;
+    long[] sessionSeed;
+    long[] sessionEnd; // where the session's games stop (its index starts)
+    long games;
+
+    GameArchive(Path file) throws IOException {
+        channel = FileChannel.open(file);
+        size = channel.size();
+        int count = (int) ((size + WINDOW - 1) / WINDOW);
+        windows = new MappedByteBuffer[Math.max(count, 1)];
+        for (int w = 0; w < count; w++) {
+            long start = w * WINDOW;
+            windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW + OVERLAP, size - start));
+            windows[w].order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(GameArchiveWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header, 0);
+        header.flip();
+        for (byte b : GameArchiveWriter.MAGIC) {
+            if (header.get() != b) throw new IOException("Not a game archive (bad magic)");
+        }
+        if (header.getInt() != GameArchiveWriter.VERSION) throw new IOException("Unsupported game archive version");
+
+        // Walk the trailers back from the newest, then store them oldest first
+        int sessions = 0;
+        for (long t = header.getLong(); t != 0; t = getLong(t + 32)) {
+            if (getLong(t + 40) != GameArchiveWriter.TRAILER_MAGIC) throw new IOException("Corrupt archive trailer at " + t);
+            sessions++;
+        }
+        sessionFirst = new long[sessions];
+        sessionGames = new long[sessions];
+        sessionIndex = new long[sessions];
+        sessionSeed = new long[sessions];
+        sessionEnd = new long[sessions];
+        int s = sessions;
+        for (long t = header.getLong(8); t != 0; t = getLong(t + 32)) {
+            s--;
+            sessionIndex[s] = getLong(t);
+            sessionGames[s] = getLong(t + 8);
+            sessionSeed[s] = getLong(t + 16);
+            sessionFirst[s] = getLong(t + 24);
+            sessionEnd[s] = sessionIndex[s];
+        }
+        games = sessions == 0 ? 0 : sessionFirst[sessions - 1] + sessionGames[sessions - 1];
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer into, long position) throws IOException {
+        while (into.hasRemaining()) {
+            int n = channel.read(into, position);
+            if (n < 0) throw new EOFException("Archive ends early");
+            position += n;
+        }
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer from, long position) throws IOException {
+        while (from.hasRemaining()) position += channel.write(from, position);
+    }
+
+    long getLong(long offset) {
+        return windows[(int) (offset / WINDOW)].getLong((int) (offset % WINDOW));
+    }
+
+    int session(long n) {
+        if (n < 0 || n >= games) throw new IndexOutOfBoundsException("Game " + n + " of " + games);
+        int lo = 0;
+        int hi = sessionFirst.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (sessionFirst[mid] <= n) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    // Game n's bytes (game number varint + GameRecord encoding), as a view of the mapping
+    ByteBuffer game(long n) {
+        int s = session(n);
+        long i = n - sessionFirst[s];
+        long start = getLong(sessionIndex[s] + i * 8);
+        long end = i + 1 < sessionGames[s] ? getLong(sessionIndex[s] + (i + 1) * 8) : sessionEnd[s];
+        ByteBuffer slice = windows[(int) (start / WINDOW)].slice((int) (start % WINDOW), (int) (end - start));
+        return slice.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    void read(long n, GameRecord record) {
+        ByteBuffer bytes = game(n);
+        long number = GameRecord.getVarint(bytes);
+        record.decode(bytes, sessionSeed[session(n)], number);
+    }
+
+    void close() throws IOException { channel.close(); }
+
+    // args: file [n]
+    public static void main(String[] args) throws Exception {
+        GameArchive archive = new GameArchive(Path.of(args[0]));
+        try {
+            System.out.println(String.format("%,d games in %d session(s), %,d bytes", archive.games,
+                    archive.sessionFirst.length, archive.size));
+            if (args.length > 1) {
+                long n = Long.parseLong(args[1]);
+                GameRecord record = new GameRecord();
+                long start = System.nanoTime();
+                archive.read(n, record);
+                long found = System.nanoTime() - start;
+                GameEngine game = new GameEngine(0);
+                record.replay(game, new MoveBuffer());
+                System.out.println("Game " + n + " (game " + record.gameNumber + " of its run, seed " + record.seed + "): "
+                        + game.turns + " turns, " + (game.winner == -1 ? "unfinished" : SorryGood.PLAYER_COLORS[game.winner] + " won")
+                        + ", " + record.count + " decisions; found and decoded in " + found / 1000 + " us");
+            }
+        } finally {
+            archive.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends games to a GameArchive file. Each open/close is one session: the games, then
+ * their offset index, then a trailer that links to the previous session's trailer.
+ *
+ * File header (16 bytes): "SARC" | version int | offset of the last trailer (0 = none)
+ * Game:    varint game number | GameRecord encoding (seed derived from the session's run seed)
+ * Index:   one little-endian long per game: its offset in the file
+ * Trailer: index offset | games | run seed | first game's archive number | previous trailer | "SARCTRLR"
+ *
+ * The header only points at a trailer once the session is complete, so a crash mid-session
+ * loses that session and nothing else: the next writer cuts the file back to the last trailer.
+ * Index entries go to a side file while writing (100M games = 800 MB of offsets), which is
+ * copied in with transferTo on close.
+ * Each game's GameRecord.events go into a GameEventIndex, saved as <archive>.events on close.
+ * append() is synchronized so simulation workers can share one writer.
+ */
+public class GameArchiveWriter {
+
+    static final byte[] MAGIC = {'S', 'A', 'R', 'C'};
+    static final long TRAILER_MAGIC = 0x524C525443524153L; // "SARCTRLR" little-endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int TRAILER_BYTES = 6 * 8;
+    static final int MAX_GAME_BYTES = GameRecordWriter.BUFFER_BYTES; // longest game the reader will map
+
+    Path file;
+    FileChannel data;
+    FileChannel index;
+    Path indexFile;
+    GameEventIndex events;
+    long runSeed;
+
+    ByteBuffer out = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer offsets = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    long position;         // file offset of out's first byte
+    long games = 0;
+    long firstNumber;      // archive number of this session's first game
+    long previousTrailer;
+
+    GameArchiveWriter(Path file, long runSeed) throws IOException {
+        this.file = file;
+        this.runSeed = runSeed;
+        data = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexFile = file.resolveSibling(file.getFileName() + ".idx.tmp");
+        index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (data.size() == 0) {
+            header.put(MAGIC).putInt(VERSION).putLong(0).flip();
+            data.write(header, 0);
+            position = HEADER_BYTES;
+            previousTrailer = 0;
+            firstNumber = 0;
+        } else {
+            GameArchive.readFully(data, header, 0);
+            header.flip();
+            for (byte b : MAGIC) {
+                if (header.get() != b) throw new IOException("Not a game archive (bad magic)");
+            }
+            if (header.getInt() != VERSION) throw new IOException("Unsupported game archive version");
+            previousTrailer = header.getLong();
+            if (previousTrailer == 0) {
+                position = HEADER_BYTES;
+                firstNumber = 0;
+            } else {
+                ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                GameArchive.readFully(data, trailer, previousTrailer);
+                position = previousTrailer + TRAILER_BYTES;
+                firstNumber = trailer.getLong(24) + trailer.getLong(8);
+            }
+            data.truncate(position); // drop whatever an unfinished session left behind
+        }
+        events = GameEventIndex.load(file, firstNumber);
+    }
+
+    // Returns the game's archive number
+    synchronized long append(GameRecord record) throws IOException {
+        if (record.maxEncodedSize() + 10 > MAX_GAME_BYTES) {
+            throw new IllegalArgumentException("Game " + record.gameNumber + " is too long to archive");
+        }
+        if (out.remaining() < record.maxEncodedSize() + 10) flushData();
+        if (!offsets.hasRemaining()) flushIndex();
+        offsets.putLong(position + out.position());
+        GameRecord.putVarint(out, record.gameNumber);
+        record.encode(out, runSeed);
+        long number = firstNumber + games++;
+        events.mark(number, record.events);
+        return number;
+    }
+
+    void flushData() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) position += data.write(out, position);
+        out.clear();
+    }
+
+    void flushIndex() throws IOException {
+        offsets.flip();
+        while (offsets.hasRemaining()) index.write(offsets);
+        offsets.clear();
+    }
+
+    // Writes the index and trailer, then points the header at the trailer
+    synchronized void close() throws IOException {
+        flushData();
+        flushIndex();
+
+        long indexOffset = position;
+        long indexBytes = index.size();
+        for (long done = 0; done < indexBytes; ) {
+            done += index.transferTo(done, indexBytes - done, data.position(indexOffset + done));
+        }
+        position += indexBytes;
+
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.putLong(indexOffset).putLong(games).putLong(runSeed).putLong(firstNumber)
+                .putLong(previousTrailer).putLong(TRAILER_MAGIC).flip();
+        long trailerOffset = position;
+        GameArchive.writeFully(data, trailer, trailerOffset);
+        data.force(false); // session on disk before the header points at it
+
+        ByteBuffer pointer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        pointer.putLong(trailerOffset).flip();
+        GameArchive.writeFully(data, pointer, 8);
+        data.force(false);
+
+        data.close();
+        index.close();
+        Files.deleteIfExists(indexFile);
+        events.games = firstNumber + games;
+        events.save(file);
+    }
+}
@@ -0,0 +1,537 @@
+import java.util.SplittableRandom;
+
+/**
+ * Headless SORRY! rules engine (simplified rules from SorryGood).
+ * - One instance = one game, so many games can run side by side in one JVM.
+ * - Never prints or reads input; callers pick the pawns/targets and narrate the results
+ *   from the last move report or by listening to GameEvents.
+ *
+ * Positions:
+ *   -1  = Start
+ *   0-59 = Main track
+ *   60-64 = Home stretch (5 spaces)
+ *   65 = Home
+ */
+public class GameEngine {
+
+    // ===== Game constants =====
+    static final int PLAYERS = 4;
+    static final int PAWNS_PER_PLAYER = 4;
+
+    static final int BOARD_SIZE = 60;       // Main track size
+    static final int HOME_STRETCH_SIZE = 5; // Size of the grid leading up to home
+    static final int HOME_POS = BOARD_SIZE + HOME_STRETCH_SIZE; // 65
+    static final int START = -1;
+
+    // Starting positions for each player on the board
+    static final int[] START_POSITIONS = {0, 15, 30, 45};
+
+    // Home stretch entry positions for each player
+    static final int[] HOME_ENTRY_POSITIONS = {2, 17, 32, 47};
+
+    // One slide per color, length 4 (matches SorryTest logic)
+    static final int[] SLIDE_START = {1, 16, 31, 46};
+    static final int SLIDE_LEN = 4;
+
+    // Sorry! deck: 4 of each card 1-12 (no 6 or 9), plus 4 Sorry! cards (represented as 13)
+    static final int[] CARD_TYPES = {1, 2, 3, 4, 5, 7, 8, 10, 11, 12, 13};
+    static final int DECK_SIZE = 44; // 11 card types * 4
+
+    // Index into CARD_TYPES for each card value, -1 for values that aren't cards
+    static final int[] CARD_INDEX = {-1, 0, 1, 2, 3, 4, -1, 5, 6, -1, 7, 8, 9, 10};
+
+    // ===== Move results =====
+    static final int MOVED = 0;
+    static final int ENTERED_HOME_STRETCH = 1;
+    static final int REACHED_HOME = 2;
+    static final int SWITCHED = 3;
+    static final int SORRY_PLAYED = 4;
+    static final int AT_START = -1;       // pawn is in Start and can't move that way
+    static final int ALREADY_HOME = -2;
+    static final int BLOCKED = -3;        // own pawn on the target square
+    static final int PAST_HOME_STRETCH = -4; // backward past start of home stretch
+    static final int NO_START_PAWN = -5;
+    static final int NOT_ON_TRACK = -6;   // switch/Sorry! need pawns on the main track
+
+    // ===== State =====
+    int currentPlayer = 0;
+    int[][] pawnPositions = new int[PLAYERS][PAWNS_PER_PLAYER];
+    int[] savedSorryCards = new int[PLAYERS];
+
+    // Occupancy index over the main track: player * PAWNS_PER_PLAYER + pawn, or EMPTY.
+    // Kept in step with pawnPositions by setPosition() so bump/block/slide checks are one lookup.
+    static final int EMPTY = -1;
+    int[] occupant = new int[BOARD_SIZE];
+
+    Deck deck = new Deck(); // keeps per-type counts, so draw odds are one lookup
+
+    // All the engine's randomness (deck draws) comes from rng, which initializeGame(seed)
+    // resets to seed: the same seed and the same decisions replay a game exactly.
+    // Bots must use their own generator, or their choices would shift the draws.
+    long seed;
+    GameRandom rng;
+
+    // Zobrist hash of pawns, saved Sorry! counts, player to move and cards left (see Zobrist).
+    // Every change below XORs the old key out and the new one in.
+    long hash;
+
+    // Headless turn state: a turn is an optional saved Sorry! decision followed by the drawn card's decision.
+    static final int SAVED_SORRY_CARD = 0; // pendingCard value for the saved Sorry! decision
+    static final int MAX_TURNS = 2000;     // games still running after this are counted as draws
+
+    int pendingCard = -1;
+    boolean savedSorryDeclined = false;
+    int winner = -1;
+    int turns = 0;
+
+    // ===== Last move report =====
+    // Filled by each rule call so a client can narrate it without the engine printing.
+    int moveTo = START;        // square the pawn landed on before any slide
+    int slideTo = START;       // square after the slide, or -1 if no slide happened
+    int bumpCount = 0;
+    int slideBumps = 0;        // most pawns a single slide bumped
+    int[] bumped = new int[PLAYERS * PAWNS_PER_PLAYER];        // player * PAWNS_PER_PLAYER + pawn
+    boolean[] bumpedBySlide = new boolean[PLAYERS * PAWNS_PER_PLAYER];
+
+    // Typed events for listeners (see GameEvents); null until someone listens, and the rules skip them
+    GameEvents events;
+
+    GameEngine() { this(new SplittableRandom().nextLong()); }
+
+    // seed starts the engine's stream; each initializeGame() takes the next game seed from it
+    GameEngine(long seed) {
+        this.seed = seed;
+        this.rng = new GameRandom(seed);
+    }
+
+    // ===== Game setup / deck =====
+    void initializeGame() { initializeGame(rng.nextLong()); }
+
+    void initializeGame(long gameSeed) {
+        seed = gameSeed;
+        rng.state = gameSeed;
+        for (int i = 0; i < PLAYERS; i++) {
+            for (int j = 0; j < PAWNS_PER_PLAYER; j++) {
+                pawnPositions[i][j] = START;
+            }
+            savedSorryCards[i] = 0;
+        }
+        currentPlayer = 0;
+        pendingCard = -1;
+        savedSorryDeclined = false;
+        winner = -1;
+        turns = 0;
+        rebuildOccupancy();
+        deck.initialize();
+        rehash();
+    }
+
+    // Recompute the occupancy index after pawnPositions was written directly
+    void rebuildOccupancy() {
+        for (int i = 0; i < BOARD_SIZE; i++) occupant[i] = EMPTY;
+        for (int p = 0; p < PLAYERS; p++) {
+            for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
+                int pos = pawnPositions[p][pawn];
+                if (onTrack(pos)) occupant[pos] = p * PAWNS_PER_PLAYER + pawn;
+            }
+        }
+    }
+
+    // Recompute the hash after state was written directly
+    void rehash() { hash = Zobrist.of(this); }
+
+    // O(card types): the Deck shuffles lazily as cards are drawn
+    void resetDeck() {
+        for (int t = 0; t < CARD_TYPES.length; t++) {
+            hash ^= Zobrist.deck(t, deck.left[t]) ^ Zobrist.deck(t, Deck.COPIES);
+        }
+        deck.reset();
+    }
+
+    int drawCard() {
+        if (deck.isEmpty()) resetDeck();
+        int card = deck.draw(rng);
+        int t = CARD_INDEX[card];
+        hash ^= Zobrist.deck(t, deck.left[t] + 1) ^ Zobrist.deck(t, deck.left[t]);
+        return card;
+    }
+
+    void nextPlayer() { setCurrentPlayer((currentPlayer + 1) % PLAYERS); }
+
+    void setCurrentPlayer(int player) {
+        hash ^= Zobrist.PLAYER[currentPlayer] ^ Zobrist.PLAYER[player];
+        currentPlayer = player;
+    }
+
+    // Copy another game's whole state into this one without allocating (the RNG is not shared)
+    void copyFrom(GameEngine other) {
+        for (int p = 0; p < PLAYERS; p++) {
+            System.arraycopy(other.pawnPositions[p], 0, pawnPositions[p], 0, PAWNS_PER_PLAYER);
+        }
+        System.arraycopy(other.savedSorryCards, 0, savedSorryCards, 0, PLAYERS);
+        System.arraycopy(other.occupant, 0, occupant, 0, BOARD_SIZE);
+        deck.copyFrom(other.deck);
+        hash = other.hash;
+        currentPlayer = other.currentPlayer;
+        pendingCard = other.pendingCard;
+        savedSorryDeclined = other.savedSorryDeclined;
+        winner = other.winner;
+        turns = other.turns;
+    }
+
+    // ===== Queries =====
+    static boolean onTrack(int pos) { return pos >= 0 && pos < BOARD_SIZE; }
+
+    // First pawn still in Start, or -1
+    int findStartPawn(int player) {
+        for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
+            if (pawnPositions[player][pawn] == START) return pawn;
+        }
+        return -1;
+    }
+
+    int occupantAt(int pos) { return occupant[pos]; }
+
+    boolean isOwnPawnAt(int player, int pos) {
+        if (onTrack(pos)) {
+            int occ = occupant[pos];
+            return occ != EMPTY && occ / PAWNS_PER_PLAYER == player;
+        }
+        // Home stretch and Home aren't indexed
+        for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
+            if (pawnPositions[player][pawn] == pos) return true;
+        }
+        return false;
+    }
+
+    // How far along a pawn is: 0 in Start, 1-60 around the track up to its home entry square,
+    // 61-65 in the home stretch and 66 at Home
+    static int progress(int player, int pos) {
+        if (pos == START) return 0;
+        if (pos >= BOARD_SIZE) return pos + 1;
+        int toEntry = (HOME_ENTRY_POSITIONS[player] - pos + BOARD_SIZE) % BOARD_SIZE;
+        return BOARD_SIZE - toEntry; // the entry square is one step from the stretch
+    }
+
+    boolean checkWin(int player) {
+        for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
+            if (pawnPositions[player][pawn] != HOME_POS) return false;
+        }
+        return true;
+    }
+
+    // ===== Moves =====
+    // Every position change goes through here to keep the occupancy index current.
+    // A pawn landing on an opponent's square doesn't take the index entry until
+    // checkBump() has sent the opponent back to Start.
+    void setPosition(int player, int pawn, int pos) {
+        int id = player * PAWNS_PER_PLAYER + pawn;
+        int old = pawnPositions[player][pawn];
+        if (onTrack(old) && occupant[old] == id) occupant[old] = EMPTY;
+        pawnPositions[player][pawn] = pos;
+        hash ^= Zobrist.pawn(player, pawn, old) ^ Zobrist.pawn(player, pawn, pos);
+        if (onTrack(pos) && occupant[pos] == EMPTY) occupant[pos] = id;
+    }
+
+    void clearReport() {
+        moveTo = START;
+        slideTo = START;
+        bumpCount = 0;
+        slideBumps = 0;
+    }
+
+    int moveFromStart(int player) {
+        clearReport();
+        int startPawn = findStartPawn(player);
+        if (startPawn == -1) return NO_START_PAWN;
+
+        int startPos = START_POSITIONS[player];
+        if (isOwnPawnAt(player, startPos)) return BLOCKED;
+
+        setPosition(player, startPawn, startPos);
+        moveTo = startPos;
+        event(GameEvents.MOVED, player, startPawn, START, startPos);
+        checkBump(player, startPawn);
+        checkSlide(player, startPawn);
+        return MOVED;
+    }
+
+    // Where a pawn at pos ends up after moving a signed number of spaces, before any slide.
+    // Returns AT_START, ALREADY_HOME or PAST_HOME_STRETCH if it can't move that way.
+    // Used to build MoveTables; the rules read the tables instead.
+    static int destination(int player, int pos, int spaces, boolean forward) {
+        if (pos == START) return AT_START;
+        if (pos == HOME_POS) return ALREADY_HOME;
+
+        // Pawn is in home stretch
+        if (pos >= BOARD_SIZE) {
+            int newHomeStretchPos = pos - BOARD_SIZE + spaces;
+            if (newHomeStretchPos >= HOME_STRETCH_SIZE) return HOME_POS;
+            if (newHomeStretchPos < 0) return PAST_HOME_STRETCH;
+            return BOARD_SIZE + newHomeStretchPos;
+        }
+
+        // Enter home stretch if passing home entry (forward moves only)
+        if (forward && spaces > 0) {
+            // 0 = standing on the entry square: every space of the move goes into the stretch
+            int distanceToHome = (HOME_ENTRY_POSITIONS[player] - pos + BOARD_SIZE) % BOARD_SIZE;
+            if (distanceToHome <= spaces) {
+                int remaining = spaces - distanceToHome;
+                // remaining == 0 lands on the entry square itself, which is still main track
+                if (remaining > 0 && remaining <= HOME_STRETCH_SIZE) {
+                    return remaining == HOME_STRETCH_SIZE ? HOME_POS : BOARD_SIZE + remaining - 1; // 0..4
+                }
+            }
+        }
+
+        // On main board
+        return (pos + spaces + BOARD_SIZE) % BOARD_SIZE;
+    }
+
+    // End of the slide a player's pawn takes from pos, or -1 if pos isn't another color's slide start.
+    // Used to build MoveTables.SLIDE_END.
+    static int slideEnd(int player, int pos) {
+        for (int colorOwner = 0; colorOwner < PLAYERS; colorOwner++) {
+            if (colorOwner == player) continue; // can't slide on your own color
+            if (pos == SLIDE_START[colorOwner]) return (pos + SLIDE_LEN) % BOARD_SIZE;
+        }
+        return -1;
+    }
+
+    // Would movePawn() succeed? Same checks, without touching the board
+    boolean canMovePawn(int player, int pawn, int spaces) {
+        int newPos = MoveTables.LAND[MoveTables.index(player, pawnPositions[player][pawn], spaces)];
+        if (newPos < 0) return false;
+        return !(onTrack(newPos) && isOwnPawnAt(player, newPos));
+    }
+
+    boolean canMoveFromStart(int player) {
+        return findStartPawn(player) != -1 && !isOwnPawnAt(player, START_POSITIONS[player]);
+    }
+
+    // Moves a pawn by a signed number of spaces (negative = backward)
+    int movePawn(int player, int pawn, int spaces, boolean forward) {
+        clearReport();
+        return stepPawn(player, pawn, spaces, forward);
+    }
+
+    // movePawn() without clearing the report, so both halves of a 7 split are reported
+    int stepPawn(int player, int pawn, int spaces, boolean forward) {
+        int currentPos = pawnPositions[player][pawn];
+        int newPos = forward && MoveTables.inRange(spaces)
+                ? MoveTables.LAND[MoveTables.index(player, currentPos, spaces)]
+                : destination(player, currentPos, spaces, forward);
+        if (newPos < 0) return newPos;
+
+        if (!onTrack(newPos)) {
+            setPosition(player, pawn, newPos);
+            moveTo = newPos;
+            event(GameEvents.MOVED, player, pawn, currentPos, newPos);
+            if (newPos == HOME_POS) {
+                event(GameEvents.REACHED_HOME, player, pawn, currentPos, newPos);
+                return REACHED_HOME;
+            }
+            if (currentPos >= BOARD_SIZE) return MOVED;
+            event(GameEvents.ENTERED_HOME_STRETCH, player, pawn, currentPos, newPos);
+            return ENTERED_HOME_STRETCH;
+        }
+
+        if (isOwnPawnAt(player, newPos)) return BLOCKED;
+
+        setPosition(player, pawn, newPos);
+        moveTo = newPos;
+        event(GameEvents.MOVED, player, pawn, currentPos, newPos);
+        checkBump(player, pawn);
+        checkSlide(player, pawn);
+        return MOVED;
+    }
+
+    // ===== Interactions =====
+    void addBump(int player, int pawn, boolean bySlide) {
+        bumped[bumpCount] = player * PAWNS_PER_PLAYER + pawn;
+        bumpedBySlide[bumpCount] = bySlide;
+        bumpCount++;
+    }
+
+    void event(int type, int player, int pawn, int from, int to) {
+        if (events != null) events.emit(GameEvents.encode(type, player, pawn, from, to));
+    }
+
+    // victim was sent back to Start from pos by bumper's pawn
+    void bumpEvent(int victim, int pos, int bumper, int bumperPawn, boolean bySlide) {
+        if (events == null) return;
+        int event = GameEvents.encode(GameEvents.BUMPED, victim / PAWNS_PER_PLAYER, victim % PAWNS_PER_PLAYER,
+                pos, START, bumper, bumperPawn);
+        events.emit(bySlide ? event | GameEvents.BY_SLIDE : event);
+    }
+
+    // Starts delivering events to listener (see GameEvents)
+    void listen(GameEvents.Listener listener) {
+        if (events == null) events = new GameEvents();
+        events.subscribe(listener);
+    }
+
+    void publishEvents() {
+        if (events != null) events.publish();
+    }
+
+    void checkBump(int player, int pawn) {
+        int pos = pawnPositions[player][pawn];
+        if (!onTrack(pos)) return; // only bump on main track
+
+        int id = player * PAWNS_PER_PLAYER + pawn;
+        int occ = occupant[pos];
+        if (occ != EMPTY && occ != id && occ / PAWNS_PER_PLAYER != player) {
+            setPosition(occ / PAWNS_PER_PLAYER, occ % PAWNS_PER_PLAYER, START);
+            addBump(occ / PAWNS_PER_PLAYER, occ % PAWNS_PER_PLAYER, false);
+            bumpEvent(occ, pos, player, pawn, false);
+        }
+        occupant[pos] = id;
+    }
+
+    void checkSlide(int player, int pawn) {
+        int pos = pawnPositions[player][pawn];
+        if (!onTrack(pos)) return;
+
+        int endPos = MoveTables.slideEnd(player, pos);
+        if (endPos == -1) return;
+
+        event(GameEvents.SLID, player, pawn, pos, endPos);
+        // Bump any pawns on the slide path first, so the sliding pawn doesn't bump itself at the end
+        int bumps = 0;
+        for (int step = 1; step <= SLIDE_LEN; step++) {
+            int occ = occupant[(pos + step) % BOARD_SIZE];
+            if (occ != EMPTY) {
+                setPosition(occ / PAWNS_PER_PLAYER, occ % PAWNS_PER_PLAYER, START);
+                addBump(occ / PAWNS_PER_PLAYER, occ % PAWNS_PER_PLAYER, true);
+                bumpEvent(occ, (pos + step) % BOARD_SIZE, player, pawn, true);
+                bumps++;
+            }
+        }
+        setPosition(player, pawn, endPos);
+        slideTo = endPos;
+        slideBumps = Math.max(slideBumps, bumps);
+    }
+
+    int switchWithOpponent(int player, int myPawn, int otherPlayer, int otherPawn) {
+        clearReport();
+        int myPos = pawnPositions[player][myPawn];
+        int theirPos = pawnPositions[otherPlayer][otherPawn];
+        if (otherPlayer == player || !onTrack(myPos) || !onTrack(theirPos)) return NOT_ON_TRACK;
+
+        // Swap both the positions and their index entries
+        pawnPositions[player][myPawn] = theirPos;
+        pawnPositions[otherPlayer][otherPawn] = myPos;
+        hash ^= Zobrist.pawn(player, myPawn, myPos) ^ Zobrist.pawn(player, myPawn, theirPos)
+                ^ Zobrist.pawn(otherPlayer, otherPawn, theirPos) ^ Zobrist.pawn(otherPlayer, otherPawn, myPos);
+        occupant[theirPos] = player * PAWNS_PER_PLAYER + myPawn;
+        occupant[myPos] = otherPlayer * PAWNS_PER_PLAYER + otherPawn;
+        moveTo = theirPos;
+        if (events != null) {
+            events.emit(GameEvents.encode(GameEvents.SWITCHED, player, myPawn, myPos, theirPos, otherPlayer, otherPawn));
+        }
+        return SWITCHED;
+    }
+
+    int playSorryCard(int player, int targetPlayer, int targetPawn) {
+        clearReport();
+        int targetPos = pawnPositions[targetPlayer][targetPawn];
+        if (targetPlayer == player || !onTrack(targetPos)) return NOT_ON_TRACK;
+
+        int startPawn = findStartPawn(player);
+        if (startPawn == -1) return NO_START_PAWN;
+
+        setPosition(targetPlayer, targetPawn, START);
+        addBump(targetPlayer, targetPawn, false);
+        bumpEvent(targetPlayer * PAWNS_PER_PLAYER + targetPawn, targetPos, player, startPawn, false);
+
+        setPosition(player, startPawn, targetPos);
+        moveTo = targetPos;
+        event(GameEvents.MOVED, player, startPawn, START, targetPos);
+        checkSlide(player, startPawn);
+        return SORRY_PLAYED;
+    }
+
+    void saveSorryCard(int player) { setSavedSorryCards(player, savedSorryCards[player] + 1); }
+
+    void useSavedSorryCard(int player) { setSavedSorryCards(player, savedSorryCards[player] - 1); }
+
+    void setSavedSorryCards(int player, int count) {
+        hash ^= Zobrist.saved(player, savedSorryCards[player]) ^ Zobrist.saved(player, count);
+        savedSorryCards[player] = count;
+    }
+
+    // ===== Encoded moves (see Move / MoveGenerator) =====
+    // Plays one generated move for player and returns the rule result (PASS returns MOVED)
+    int applyMove(int player, int move) {
+        int pawn = Move.pawn(move);
+        switch (Move.kind(move)) {
+            case Move.FROM_START:
+                return moveFromStart(player);
+            case Move.STEP:
+                return movePawn(player, pawn, Move.spaces(move), true);
+            case Move.SPLIT: {
+                int first = Move.spaces(move);
+                int result = movePawn(player, pawn, first, true);
+                if (result < 0) return result;
+                return stepPawn(player, Move.otherPawn(move), 7 - first, true);
+            }
+            case Move.SWITCH:
+                return switchWithOpponent(player, pawn, Move.otherPlayer(move), Move.otherPawn(move));
+            case Move.SORRY:
+                return playSorryCard(player, Move.otherPlayer(move), Move.otherPawn(move));
+            case Move.SAVE_SORRY:
+                saveSorryCard(player);
+                return MOVED;
+            default:
+                clearReport();
+                return MOVED;
+        }
+    }
+
+    // ===== Headless turn loop =====
+    // Bots and simulations drive a game with prepareDecision()/applyDecision() instead of prompts:
+    //   while (!game.isOver()) game.applyDecision(moves.get(bot.chooseMove(...)));
+    boolean isOver() { return winner != -1 || turns >= MAX_TURNS; }
+
+    // Draws a card (unless the saved Sorry! question comes first) and lists the choices.
+    // Returns the card the decision is for, or SAVED_SORRY_CARD.
+    int prepareDecision(MoveBuffer out) {
+        if (savedSorryCards[currentPlayer] > 0 && !savedSorryDeclined) {
+            pendingCard = SAVED_SORRY_CARD;
+            MoveGenerator.generateSavedSorryMoves(this, out);
+        } else {
+            pendingCard = drawCard();
+            MoveGenerator.generateMoves(this, pendingCard, out);
+        }
+        return pendingCard;
+    }
+
+    void applyDecision(int move) {
+        int player = currentPlayer;
+        int card = pendingCard;
+        pendingCard = -1;
+
+        if (card == SAVED_SORRY_CARD) {
+            if (Move.kind(move) == Move.PASS) {
+                savedSorryDeclined = true; // go on to draw
+                return;
+            }
+            applyMove(player, move);
+            useSavedSorryCard(player);
+        } else {
+            applyMove(player, move);
+        }
+        publishEvents();
+
+        if (checkWin(player)) {
+            winner = player;
+            return;
+        }
+        savedSorryDeclined = false;
+        if (card != 2) { // 2 draws again
+            nextPlayer();
+            turns++;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Per-event bitmap indexes over a game archive: bitmap e holds the archive numbers of the
+ * games in which event e happened, so "games where A and B happened" is a Bitmap.and of two
+ * indexes instead of a replay of the whole archive.
+ * - Events are found while a game is played (Simulator.playGame) or replayed (GameRecord.replay)
+ *   and carried in GameRecord.events; GameArchiveWriter.append marks them under its archive number.
+ * - Saved next to the archive as <archive>.events when the writer closes. An index that doesn't
+ *   cover the archive's games (missing, or from a crashed session) is rebuilt by replaying it.
+ *
+ * File: "SEVT" | version int | games covered long | event count int | one Bitmap per event
+ *
+ * Usage: java SorryGood query games.sarc event[,event...]   (games where every event happened;
+ *        !event for games where it didn't, e.g. slide-double-bump,!unfinished)
+ */
+public class GameEventIndex {
+
+    // ===== Events (bit numbers in GameRecord.events) =====
+    static final int SORRY_BUMP_ON_HOME_ENTRY = 0;  // a Sorry! card bumped a pawn sitting on its own home entry square
+    static final int SLIDE_DOUBLE_BUMP = 1;         // one slide bumped two or more pawns
+    static final int WINNER_SAVED_SORRY_UNUSED = 2; // the winner still had a saved Sorry! card
+    static final int UNFINISHED = 3;                // hit MAX_TURNS with no winner
+    static final String[] EVENT_NAMES = {"sorry-home-entry", "slide-double-bump", "winner-saved-sorry", "unfinished"};
+    static final int EVENTS = EVENT_NAMES.length;
+
+    static final byte[] MAGIC = {'S', 'E', 'V', 'T'};
+    static final int VERSION = 1;
+
+    Bitmap[] bitmaps = new Bitmap[EVENTS];
+    long games = 0; // archive numbers below this are indexed
+
+    GameEventIndex() {
+        for (int e = 0; e < EVENTS; e++) bitmaps[e] = new Bitmap();
+    }
+
+    static int event(String name) {
+        for (int e = 0; e < EVENTS; e++) {
+            if (EVENT_NAMES[e].equals(name)) return e;
+        }
+        throw new IllegalArgumentException("Unknown event '" + name + "' (events: " + String.join(", ", EVENT_NAMES) + ")");
+    }
+
+    // ===== Detection =====
+    // Called with the move about to be applied
+    static int before(GameEngine game, int move) {
+        if (Move.kind(move) == Move.SORRY) {
+            int target = Move.otherPlayer(move);
+            if (game.pawnPositions[target][Move.otherPawn(move)] == GameEngine.HOME_ENTRY_POSITIONS[target]) {
+                return 1 << SORRY_BUMP_ON_HOME_ENTRY;
+            }
+        }
+        return 0;
+    }
+
+    // Called after applyDecision(move); PASS and SAVE_SORRY leave the last move report alone
+    static int after(GameEngine game, int move) {
+        int kind = Move.kind(move);
+        if (kind == Move.PASS || kind == Move.SAVE_SORRY) return 0;
+        return game.slideBumps >= 2 ? 1 << SLIDE_DOUBLE_BUMP : 0;
+    }
+
+    // Called once the game is over
+    static int atEnd(GameEngine game) {
+        if (game.winner == -1) return 1 << UNFINISHED;
+        return game.savedSorryCards[game.winner] > 0 ? 1 << WINNER_SAVED_SORRY_UNUSED : 0;
+    }
+
+    // ===== Index =====
+    void mark(long archiveNumber, int events) {
+        if (archiveNumber > Integer.MAX_VALUE) throw new IllegalStateException("Event index holds up to 2^31 games");
+        for (int e = 0; events != 0; e++, events >>>= 1) {
+            if ((events & 1) != 0) bitmaps[e].add((int) archiveNumber);
+        }
+        games = Math.max(games, archiveNumber + 1);
+    }
+
+    // Games where every listed event happened
+    Bitmap query(int... events) {
+        return query(events, new int[0]);
+    }
+
+    // Games where every event in events happened and none in without did (events can't be empty)
+    Bitmap query(int[] events, int[] without) {
+        Bitmap result = bitmaps[events[0]];
+        for (int i = 1; i < events.length; i++) result = Bitmap.and(result, bitmaps[events[i]]);
+        for (int e : without) result = Bitmap.andNot(result, bitmaps[e]);
+        return result;
+    }
+
+    static Path fileFor(Path archive) { return archive.resolveSibling(archive.getFileName() + ".events"); }
+
+    // Written to a temp file, forced to disk and moved into place, so a crash leaves the old index or the new one
+    void save(Path archive) throws IOException {
+        Path file = fileFor(archive);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(games);
+            out.writeInt(EVENTS);
+            for (Bitmap bitmap : bitmaps) bitmap.writeTo(out);
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // The index for the first `games` games of archive, from its .events file if that matches, else rebuilt
+    // (also when the file is cut short or unreadable: the archive is the source of truth)
+    static GameEventIndex load(Path archive, long games) throws IOException {
+        Path file = fileFor(archive);
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                boolean ok = true;
+                for (byte b : MAGIC) ok &= in.readByte() == b;
+                if (ok && in.readInt() == VERSION && in.readLong() == games && in.readInt() == EVENTS) {
+                    GameEventIndex index = new GameEventIndex();
+                    for (int e = 0; e < EVENTS; e++) index.bitmaps[e] = Bitmap.readFrom(in);
+                    index.games = games;
+                    return index;
+                }
+            } catch (IOException e) {
+                // fall through to the rebuild
+            }
+        }
+        return rebuild(archive, games);
+    }
+
+    static GameEventIndex rebuild(Path archive, long games) throws IOException {
+        GameEventIndex index = new GameEventIndex();
+        if (games == 0) return index;
+        GameArchive source = new GameArchive(archive);
+        try {
+            GameRecord record = new GameRecord();
+            GameEngine game = new GameEngine(0);
+            MoveBuffer moves = new MoveBuffer();
+            for (long n = 0; n < games; n++) {
+                source.read(n, record);
+                record.replay(game, moves);
+                index.mark(n, record.events);
+            }
+        } finally {
+            source.close();
+        }
+        index.games = games;
+        return index;
+    }
+
+    // args: archive event[,event...]
+    public static void main(String[] args) throws Exception {
+        Path archive = Path.of(args[0]);
+        GameArchive source = new GameArchive(archive);
+        long total = source.games;
+        source.close();
+
+        long start = System.nanoTime();
+        GameEventIndex index = load(archive, total);
+        long loaded = System.nanoTime() - start;
+
+        String[] names = args[1].split(",");
+        int excluded = 0;
+        for (String name : names) {
+            if (name.trim().startsWith("!")) excluded++;
+        }
+        if (excluded == names.length) throw new IllegalArgumentException("Name at least one event that happened");
+        int[] events = new int[names.length - excluded];
+        int[] without = new int[excluded];
+        for (int i = 0, e = 0, w = 0; i < names.length; i++) {
+            String name = names[i].trim();
+            if (name.startsWith("!")) without[w++] = event(name.substring(1));
+            else events[e++] = event(name);
+        }
+        start = System.nanoTime();
+        Bitmap found = index.query(events, without);
+        long queried = System.nanoTime() - start;
+
+        StringBuilder first = new StringBuilder();
+        int[] shown = {0};
+        found.forEach(n -> {
+            if (shown[0]++ < 10) first.append(first.length() == 0 ? "" : ", ").append(n);
+        });
+        System.out.println(String.format("%,d of %,d games (%s)", found.cardinality(), total, args[1]));
+        for (int e : events) {
+            System.out.println(String.format("  %-20s %,d", EVENT_NAMES[e], index.bitmaps[e].cardinality()));
+        }
+        for (int e : without) {
+            System.out.println(String.format("  %-20s %,d", "!" + EVENT_NAMES[e], total - index.bitmaps[e].cardinality()));
+        }
+        if (first.length() > 0) System.out.println("First: " + first + (found.cardinality() > 10 ? ", ..." : ""));
+        System.out.println(String.format("Index loaded in %.1f ms, query took %.3f ms", loaded / 1e6, queried / 1e6));
+    }
+}
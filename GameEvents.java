@@ -0,0 +1,102 @@
+/**
+ * What the rules did, as one int per event in a ring buffer: no objects and no strings.
+ * - The engine emits only while game.events is set (see GameEngine.listen), so simulations and
+ *   search, which never set it, do no event work at all.
+ * - publish() hands the events emitted since the last call to every listener, in order.
+ *   GameEngine.applyDecision publishes after each decision; clients calling the rule methods
+ *   directly (SorryGood) publish after each call.
+ * - Readers on other threads can poll instead: every published event stays in the ring for
+ *   CAPACITY more events (see get()).
+ *
+ * Event bits:
+ *   0-3   type
+ *   4-5   player     6-7   pawn
+ *   8-14  from + 1   15-21 to + 1      (Start = 0, Home = 66)
+ *   22-23 other player   24-25 other pawn   (BUMPED: who bumped it, SWITCHED: the swap partner)
+ *   26    BUMPED by a slide
+ */
+public class GameEvents {
+
+    // ===== Types =====
+    static final int MOVED = 0;                // pawn from -> to (from = Start when it leaves Start)
+    static final int BUMPED = 1;               // pawn sent from `from` back to Start
+    static final int SLID = 2;                 // pawn slid from the slide start to its end
+    static final int SWITCHED = 3;             // pawn from -> to, swapping places with other
+    static final int ENTERED_HOME_STRETCH = 4; // follows the MOVED into the home stretch
+    static final int REACHED_HOME = 5;         // follows the MOVED onto Home
+    static final String[] TYPE_NAMES = {"MOVED", "BUMPED", "SLID", "SWITCHED", "ENTERED_HOME_STRETCH", "REACHED_HOME"};
+
+    static final int BY_SLIDE = 1 << 26;
+
+    static final int CAPACITY = 1 << 10;
+    static final int MASK = CAPACITY - 1;
+
+    interface Listener {
+        void onEvent(int event);
+    }
+
+    int[] ring = new int[CAPACITY];
+    long written = 0;             // events emitted
+    volatile long published = 0;  // events handed to listeners and visible to readers
+    Listener[] listeners = new Listener[0];
+
+    // ===== Encoding =====
+    static int encode(int type, int player, int pawn, int from, int to) {
+        return type | player << 4 | pawn << 6 | (from + 1) << 8 | (to + 1) << 15;
+    }
+
+    static int encode(int type, int player, int pawn, int from, int to, int otherPlayer, int otherPawn) {
+        return encode(type, player, pawn, from, to) | otherPlayer << 22 | otherPawn << 24;
+    }
+
+    static int type(int event) { return event & 0xF; }
+
+    static int player(int event) { return (event >>> 4) & 0x3; }
+
+    static int pawn(int event) { return (event >>> 6) & 0x3; }
+
+    static int from(int event) { return ((event >>> 8) & 0x7F) - 1; }
+
+    static int to(int event) { return ((event >>> 15) & 0x7F) - 1; }
+
+    static int otherPlayer(int event) { return (event >>> 22) & 0x3; }
+
+    static int otherPawn(int event) { return (event >>> 24) & 0x3; }
+
+    static boolean bySlide(int event) { return (event & BY_SLIDE) != 0; }
+
+    // Short text for logs and debugging, e.g. "MOVED Red 2 5->9"
+    static String describe(int event) {
+        String text = TYPE_NAMES[type(event)] + " " + SorryGood.PLAYER_COLORS[player(event)] + " " + (pawn(event) + 1)
+                + " " + from(event) + "->" + to(event);
+        if (type(event) == SWITCHED || type(event) == BUMPED) {
+            text += " (" + SorryGood.PLAYER_COLORS[otherPlayer(event)] + " " + (otherPawn(event) + 1) + ")";
+        }
+        return bySlide(event) ? text + " by slide" : text;
+    }
+
+    // ===== Ring =====
+    void emit(int event) {
+        ring[(int) written & MASK] = event;
+        written++;
+    }
+
+    void publish() {
+        long from = published;
+        long to = written;
+        published = to;
+        for (Listener listener : listeners) {
+            for (long seq = from; seq < to; seq++) listener.onEvent(ring[(int) seq & MASK]);
+        }
+    }
+
+    // Event number seq; only valid while published - CAPACITY <= seq < published
+    int get(long seq) { return ring[(int) seq & MASK]; }
+
+    void subscribe(Listener listener) {
+        Listener[] more = new Listener[listeners.length + 1];
+        System.arraycopy(listeners, 0, more, 0, listeners.length);
+        more[listeners.length] = listener;
+        listeners = more;
+    }
+}
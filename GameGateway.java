@@ -0,0 +1,284 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Non-blocking alternative to GameServer: one selector thread runs every connection's game,
+ * speaking a small binary protocol instead of text lines.
+ * - Each connection is one player (seat 0) against three bots. Bot turns are played inline on
+ *   the selector thread, so a client's answer is followed straight away by its next decision.
+ * - Reads land in one shared direct buffer; a connection only borrows a pooled buffer while it
+ *   holds a partial message or unsent output (see BufferPool).
+ * - Writes are batched per tick: everything a connection is sent while handling one select()
+ *   goes out in a single write() after all ready keys are handled.
+ * - A client that lets a whole output buffer pile up is too slow to serve and is dropped.
+ *
+ * Every message: u16 length of the rest | u8 type | payload   (big-endian)
+ *   client NEW_GAME  seed long | u8 bot per other seat (0 random, 1 greedy)
+ *   client ANSWER    u8 index into the last DECISION's moves
+ *   server KEYFRAME  16 x u8 position + 1   (Start = 0, Home = 66), players in order
+ *   server DELTA     u8 count | count x (u8 pawn id = player * 4 + pawn, u8 position + 1)
+ *   server DECISION  u8 card (0 = saved Sorry! question) | u8 count | count x u16 move (see Move)
+ *   server GAME_OVER u8 winner + 1
+ * Positions go out before every decision as a delta of the pawns that changed since the last one,
+ * or as a keyframe when a game starts and every StateSync.KEYFRAME_EVERY messages.
+ *
+ * Usage: java SorryGood gateway [port]   (load it with: java SorryGood loadgen ...)
+ */
+public class GameGateway {
+
+    static final int DEFAULT_PORT = 7778;
+
+    // ===== Wire protocol =====
+    static final int NEW_GAME = 1;
+    static final int ANSWER = 2;
+    static final int KEYFRAME = 16;
+    static final int DELTA = 17;
+    static final int DECISION = 18;
+    static final int GAME_OVER = 19;
+    static final int HEADER_BYTES = 3;   // u16 length + u8 type
+    static final int NEW_GAME_BYTES = 8 + GameEngine.PLAYERS - 1;
+    static final int HUMAN = 0;          // the client's seat
+    static final Bot RANDOM = new RandomBot(); // stateless, so every connection shares it
+
+    static final int BUFFER_BYTES = 8 << 10;
+    static final int READ_BYTES = 64 << 10;
+
+    int port;
+    Selector selector;
+    BufferPool pool = new BufferPool(BUFFER_BYTES);
+    ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BYTES);
+    List<Connection> dirty = new ArrayList<>(); // connections with output queued this tick
+    int connections = 0;
+
+    GameGateway(int port) { this.port = port; }
+
+    // ===== Connections =====
+    static class Connection {
+        SocketChannel channel;
+        SelectionKey key;
+        ByteBuffer in;   // pooled, only while a message is partly read
+        ByteBuffer out;  // pooled, only while output waits to be written
+        boolean queued;  // in dirty this tick
+
+        GameEngine game = new GameEngine(0);
+        Bot[] bots = new Bot[GameEngine.PLAYERS];
+        SplittableRandom rnd;
+        MoveBuffer moves = new MoveBuffer();
+        StateSync sync = new StateSync(game); // the pawns the client has not been sent yet
+        boolean awaiting = false;      // a DECISION is out and unanswered
+
+        Connection(SocketChannel channel) { this.channel = channel; }
+    }
+
+    void serve() throws IOException {
+        selector = Selector.open();
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), 4096);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        System.out.println("Gateway listening on port " + port);
+
+        while (true) {
+            selector.select();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) accept(server);
+                    else {
+                        Connection c = (Connection) key.attachment();
+                        if (key.isReadable()) read(c);
+                        if (key.isValid() && key.isWritable()) write(c);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    if (key.attachment() instanceof Connection c) close(c);
+                }
+            }
+            flushDirty();
+        }
+    }
+
+    void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection c = new Connection(channel);
+            c.key = channel.register(selector, SelectionKey.OP_READ, c);
+            connections++;
+        }
+    }
+
+    void close(Connection c) {
+        if (!c.channel.isOpen()) return;
+        try {
+            c.channel.close();
+        } catch (IOException e) {
+            // already gone
+        }
+        if (c.in != null) pool.give(c.in);
+        if (c.out != null) pool.give(c.out);
+        c.in = null;
+        c.out = null;
+        connections--;
+    }
+
+    // ===== Reading =====
+    void read(Connection c) throws IOException {
+        readBuffer.clear();
+        if (c.in != null) { // carry the partial message over
+            c.in.flip();
+            readBuffer.put(c.in);
+            pool.give(c.in);
+            c.in = null;
+        }
+        int n = c.channel.read(readBuffer);
+        if (n < 0) {
+            close(c);
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.remaining() >= HEADER_BYTES) {
+            int length = readBuffer.getShort(readBuffer.position()) & 0xFFFF;
+            if (length < 1 || length > BUFFER_BYTES - 2) throw new IOException("Bad message length " + length);
+            if (readBuffer.remaining() < 2 + length) break;
+            int end = readBuffer.position() + 2 + length;
+            readBuffer.getShort();
+            handle(c, readBuffer.get(), length - 1, readBuffer);
+            readBuffer.position(end);
+        }
+        if (readBuffer.hasRemaining()) {
+            c.in = pool.take();
+            c.in.put(readBuffer);
+        }
+    }
+
+    void handle(Connection c, int type, int payload, ByteBuffer in) throws IOException {
+        if (payload < (type == NEW_GAME ? NEW_GAME_BYTES : 1)) throw new IOException("Message too short");
+        switch (type) {
+            case NEW_GAME -> {
+                long seed = in.getLong();
+                for (int p = 1; p < GameEngine.PLAYERS; p++) {
+                    boolean greedy = in.get() == 1;
+                    if (!greedy) c.bots[p] = RANDOM;
+                    else if (!(c.bots[p] instanceof GreedyBot)) c.bots[p] = new GreedyBot();
+                }
+                c.rnd = new SplittableRandom(seed ^ Simulator.BOT_SALT);
+                c.game.initializeGame(seed);
+                c.sync.keyframe();
+                advance(c);
+            }
+            case ANSWER -> {
+                int choice = in.get() & 0xFF;
+                if (!c.awaiting || choice >= c.moves.size()) throw new IOException("Unexpected answer");
+                c.awaiting = false;
+                c.game.applyDecision(c.moves.get(choice));
+                advance(c);
+            }
+            default -> throw new IOException("Unknown message type " + type);
+        }
+    }
+
+    // Plays bot turns until the client has a decision to make or the game ends
+    void advance(Connection c) throws IOException {
+        GameEngine game = c.game;
+        while (!game.isOver()) {
+            int card = game.prepareDecision(c.moves);
+            if (game.currentPlayer == HUMAN) {
+                sendState(c);
+                sendDecision(c, card);
+                c.awaiting = true;
+                return;
+            }
+            // Bots search by playing moves on the engine and taking them back: keep StateSync out of it
+            GameEvents events = game.events;
+            game.events = null;
+            int choice;
+            try {
+                choice = c.bots[game.currentPlayer].chooseMove(game, card, c.moves, c.rnd);
+            } finally {
+                game.events = events;
+            }
+            game.applyDecision(c.moves.get(choice));
+        }
+        sendState(c);
+        ByteBuffer out = message(c, GAME_OVER, 1);
+        out.put((byte) (game.winner + 1));
+    }
+
+    // ===== Writing =====
+    // Room for a message of the given payload; the caller fills in the payload
+    ByteBuffer message(Connection c, int type, int payload) throws IOException {
+        if (c.out == null) c.out = pool.take();
+        if (c.out.remaining() < HEADER_BYTES + payload) throw new IOException("Client is not reading");
+        c.out.putShort((short) (1 + payload)).put((byte) type);
+        if (!c.queued) {
+            c.queued = true;
+            dirty.add(c);
+        }
+        return c.out;
+    }
+
+    void sendState(Connection c) throws IOException {
+        if (!c.sync.pending()) return;
+        ByteBuffer out = message(c, c.sync.keyframeNext() ? KEYFRAME : DELTA, c.sync.size());
+        c.sync.write(out);
+    }
+
+    void sendDecision(Connection c, int card) throws IOException {
+        int count = c.moves.size();
+        ByteBuffer out = message(c, DECISION, 2 + 2 * count);
+        out.put((byte) card).put((byte) count);
+        for (int i = 0; i < count; i++) out.putShort((short) c.moves.get(i));
+    }
+
+    // One write per connection for everything queued this tick
+    void flushDirty() {
+        for (Connection c : dirty) {
+            c.queued = false;
+            if (!c.channel.isOpen()) continue;
+            try {
+                write(c);
+            } catch (IOException e) {
+                close(c);
+            }
+        }
+        dirty.clear();
+    }
+
+    void write(Connection c) throws IOException {
+        if (c.out != null) {
+            c.out.flip();
+            c.channel.write(c.out);
+            if (c.out.hasRemaining()) {
+                c.out.compact();
+                interest(c, SelectionKey.OP_READ | SelectionKey.OP_WRITE); // finish when the socket drains
+                return;
+            }
+            pool.give(c.out);
+            c.out = null;
+        }
+        interest(c, SelectionKey.OP_READ);
+    }
+
+    static void interest(Connection c, int ops) {
+        if (c.key.interestOps() != ops) c.key.interestOps(ops);
+    }
+
+    // args: [port]
+    public static void main(String[] args) throws Exception {
+        new GameGateway(args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT).serve();
+    }
+}
@@ -0,0 +1,45 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Seeded SplitMix64 generator for the engine's deck draws.
+ * - The whole state is one long, so a game can be saved and resumed mid-stream.
+ * - split() hands out an independent stream, so parallel workers never share one generator
+ *   (java.util.Random would contend on its atomic seed).
+ * - seedFor(base, n) gives game n of a run its own seed without stepping any generator,
+ *   so a game can be replayed from its number alone, whichever thread played it.
+ * Not thread-safe: one per engine or worker.
+ */
+public class GameRandom implements RandomGenerator {
+
+    static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    long state;
+
+    GameRandom(long seed) { state = seed; }
+
+    // splitmix64 finalizer
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static long seedFor(long base, long n) { return mix64(base + (n + 1) * GOLDEN_GAMMA); }
+
+    @Override
+    public long nextLong() { return mix64(state += GOLDEN_GAMMA); }
+
+    // Lemire's multiply-and-reject: unbiased, and usually a single nextLong()
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+        long m = (nextLong() >>> 32) * bound;
+        if ((m & 0xFFFFFFFFL) < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while ((m & 0xFFFFFFFFL) < threshold) m = (nextLong() >>> 32) * bound;
+        }
+        return (int) (m >>> 32);
+    }
+
+    GameRandom split() { return new GameRandom(mix64(nextLong())); }
+}
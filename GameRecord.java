@@ -0,0 +1,125 @@
+import java.nio.ByteBuffer;
+
+/**
+ * One game as seed + decisions, and its compact binary encoding.
+ *
+ * A decision is the card it was for and the index of the chosen move in MoveGenerator's
+ * list, which is all the engine needs: initializeGame(seed) and the same choices replay
+ * the game exactly (see replay). Cards are kept too, so a replay notices if it drifts.
+ *
+ * Encoding of one game (see GameRecordWriter for the file and block layout):
+ *   flags      1 byte   bit 0 = seed follows (else it is GameRandom.seedFor(run seed, game number))
+ *   seed       8 bytes  little-endian, only with flag bit 0
+ *   winner     1 byte   winner + 1 (0 = unfinished)
+ *   decisions  varint
+ *   each decision: 1 byte = card code << 4 | min(choice, 15), then varint(choice - 15) if 15
+ *     card code: 0 = the saved Sorry! question, else CARD_INDEX + 1
+ * A 60-turn game is ~70 bytes.
+ */
+public class GameRecord {
+
+    static final int SEED_FOLLOWS = 1;
+    static final int CHOICE_ESCAPE = 15;
+
+    long gameNumber;
+    long seed;
+    int winner = -1;
+    int count = 0;
+    int[] cards = new int[256];
+    int[] choices = new int[256];
+    int events = 0; // GameEventIndex bits seen while playing or replaying; not part of the encoding
+
+    void start(long gameNumber, long seed) {
+        this.gameNumber = gameNumber;
+        this.seed = seed;
+        winner = -1;
+        count = 0;
+        events = 0;
+    }
+
+    void add(int card, int choice) {
+        if (count == cards.length) {
+            int[] biggerCards = new int[count * 2];
+            int[] biggerChoices = new int[count * 2];
+            System.arraycopy(cards, 0, biggerCards, 0, count);
+            System.arraycopy(choices, 0, biggerChoices, 0, count);
+            cards = biggerCards;
+            choices = biggerChoices;
+        }
+        cards[count] = card;
+        choices[count] = choice;
+        count++;
+    }
+
+    // Worst case bytes for one game's encoding
+    int maxEncodedSize() { return 1 + 8 + 1 + 5 + count * 6; }
+
+    // ===== Varints (7 bits per byte, low bits first) =====
+    static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+            if (shift > 56) throw new IllegalStateException("Varint too long");
+        }
+    }
+
+    // ===== Codec =====
+    // out must be little-endian
+    void encode(ByteBuffer out, long runSeed) {
+        boolean derived = seed == GameRandom.seedFor(runSeed, gameNumber);
+        out.put((byte) (derived ? 0 : SEED_FOLLOWS));
+        if (!derived) out.putLong(seed);
+        out.put((byte) (winner + 1));
+        putVarint(out, count);
+        for (int i = 0; i < count; i++) {
+            int code = cards[i] == GameEngine.SAVED_SORRY_CARD ? 0 : GameEngine.CARD_INDEX[cards[i]] + 1;
+            int choice = choices[i];
+            out.put((byte) (code << 4 | Math.min(choice, CHOICE_ESCAPE)));
+            if (choice >= CHOICE_ESCAPE) putVarint(out, choice - CHOICE_ESCAPE);
+        }
+    }
+
+    // in must be little-endian
+    void decode(ByteBuffer in, long runSeed, long number) {
+        int flags = in.get();
+        start(number, (flags & SEED_FOLLOWS) != 0 ? in.getLong() : GameRandom.seedFor(runSeed, number));
+        winner = (in.get() & 0xFF) - 1;
+        int decisions = (int) getVarint(in);
+        for (int i = 0; i < decisions; i++) {
+            int b = in.get() & 0xFF;
+            int code = b >>> 4;
+            int choice = b & 0xF;
+            if (choice == CHOICE_ESCAPE) choice += (int) getVarint(in);
+            add(code == 0 ? GameEngine.SAVED_SORRY_CARD : GameEngine.CARD_TYPES[code - 1], choice);
+        }
+    }
+
+    // ===== Replay =====
+    // Plays the record through game, collecting its events; throws if a card or the winner doesn't match
+    void replay(GameEngine game, MoveBuffer moves) {
+        game.initializeGame(seed);
+        events = 0;
+        for (int i = 0; i < count; i++) {
+            int card = game.prepareDecision(moves);
+            if (card != cards[i] || choices[i] >= moves.size()) {
+                throw new IllegalStateException("Game " + gameNumber + " diverged at decision " + i);
+            }
+            int move = moves.get(choices[i]);
+            events |= GameEventIndex.before(game, move);
+            game.applyDecision(move);
+            events |= GameEventIndex.after(game, move);
+        }
+        events |= GameEventIndex.atEnd(game);
+        if (game.winner != winner) throw new IllegalStateException("Game " + gameNumber + " replayed to a different winner");
+    }
+}
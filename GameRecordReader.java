@@ -0,0 +1,92 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Streams GameRecords back out of a file written by GameRecordWriter, one reused buffer
+ * and one reused record at a time, so a file of any size reads in constant memory.
+ *
+ * Usage: java SorryGood replay games.srec   (replays every game through the engine to check it)
+ */
+public class GameRecordReader {
+
+    ReadableByteChannel channel;
+    ByteBuffer buffer = ByteBuffer.allocateDirect(GameRecordWriter.BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    long runSeed;
+
+    long blockFirst;
+    int blockGames = 0;
+    int blockIndex = 0;
+
+    GameRecordReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.limit(0);
+        if (!fill(GameRecordWriter.HEADER_BYTES)) throw new EOFException("Not a game record file (too short)");
+        for (byte b : GameRecordWriter.MAGIC) {
+            if (buffer.get() != b) throw new IOException("Not a game record file (bad magic)");
+        }
+        int version = buffer.get();
+        if (version != GameRecordWriter.VERSION) throw new IOException("Unsupported game record version " + version);
+        runSeed = buffer.getLong();
+    }
+
+    // Makes at least n bytes readable if the channel has them; false at end of file
+    boolean fill(int n) throws IOException {
+        if (buffer.remaining() >= n) return true;
+        if (n > buffer.capacity()) {
+            ByteBuffer bigger = ByteBuffer.allocateDirect(n).order(ByteOrder.LITTLE_ENDIAN);
+            bigger.put(buffer);
+            buffer = bigger;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < n && channel.read(buffer) >= 0) { }
+        buffer.flip();
+        return buffer.remaining() >= n;
+    }
+
+    // Decodes the next game into record; false when there are no more
+    boolean next(GameRecord record) throws IOException {
+        if (blockIndex == blockGames) {
+            fill(GameRecordWriter.BLOCK_HEADER_MAX); // fewer is fine at the last block
+            if (!buffer.hasRemaining()) return false;
+            blockFirst = GameRecord.getVarint(buffer);
+            blockGames = (int) GameRecord.getVarint(buffer);
+            int payload = (int) GameRecord.getVarint(buffer);
+            if (!fill(payload)) throw new EOFException("Game record file ends inside a block");
+            blockIndex = 0;
+        }
+        record.decode(buffer, runSeed, blockFirst + blockIndex);
+        blockIndex++;
+        return true;
+    }
+
+    // args: file
+    public static void main(String[] args) throws Exception {
+        Path file = Path.of(args[0]);
+        try (FileChannel in = FileChannel.open(file)) {
+            GameRecordReader reader = new GameRecordReader(in);
+            GameRecord record = new GameRecord();
+            GameEngine game = new GameEngine(0);
+            MoveBuffer moves = new MoveBuffer();
+            long games = 0;
+            long turns = 0;
+            long start = System.nanoTime();
+            while (reader.next(record)) {
+                record.replay(game, moves);
+                games++;
+                turns += game.turns;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long bytes = in.size();
+            System.out.println("Replayed " + games + " games (run seed " + reader.runSeed + ") in "
+                    + String.format("%.2f", seconds) + " s, all matched");
+            System.out.println(String.format("%,d bytes: %.1f bytes/game, %.1f turns/game", bytes,
+                    (double) bytes / Math.max(1, games), (double) turns / Math.max(1, games)));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Buffered writer for files of GameRecords.
+ *
+ * File:  "SREC" | version (1 byte) | run seed (8 bytes, little-endian) | blocks...
+ * Block: varint first game number | varint games | varint payload bytes | games back to back
+ * Games in a block have consecutive numbers, so a game's number (and a seed derived from it)
+ * costs nothing. Each writer fills its own direct buffer and writes whole blocks, so several
+ * writers (one per simulation worker) can share one channel without interleaving games.
+ */
+public class GameRecordWriter {
+
+    static final byte[] MAGIC = {'S', 'R', 'E', 'C'};
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = MAGIC.length + 1 + 8;
+    static final int BLOCK_HEADER_MAX = 3 * 10; // three varints
+    static final int BUFFER_BYTES = 1 << 16;
+
+    WritableByteChannel channel;
+    long runSeed;
+
+    // Block bytes go after BLOCK_HEADER_MAX; the header is filled in right before them on flush
+    ByteBuffer block = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer head = ByteBuffer.allocate(BLOCK_HEADER_MAX).order(ByteOrder.LITTLE_ENDIAN);
+    long firstGame;
+    int games = 0;
+
+    long gamesWritten = 0;
+    long bytesWritten = 0;
+
+    GameRecordWriter(WritableByteChannel channel, long runSeed) {
+        this.channel = channel;
+        this.runSeed = runSeed;
+        block.position(BLOCK_HEADER_MAX);
+    }
+
+    // Once per file, before any writer's first block
+    static void writeHeader(WritableByteChannel channel, long runSeed) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).put((byte) VERSION).putLong(runSeed).flip();
+        while (header.hasRemaining()) channel.write(header);
+    }
+
+    void write(GameRecord record) throws IOException {
+        if (record.maxEncodedSize() > BUFFER_BYTES - BLOCK_HEADER_MAX) {
+            throw new IllegalArgumentException("Game " + record.gameNumber + " is too long to record");
+        }
+        if (games > 0 && (record.gameNumber != firstGame + games || block.remaining() < record.maxEncodedSize())) {
+            flush();
+        }
+        if (games == 0) firstGame = record.gameNumber;
+        record.encode(block, runSeed);
+        games++;
+    }
+
+    void flush() throws IOException {
+        if (games == 0) return;
+        int payload = block.position() - BLOCK_HEADER_MAX;
+        head.clear();
+        GameRecord.putVarint(head, firstGame);
+        GameRecord.putVarint(head, games);
+        GameRecord.putVarint(head, payload);
+        head.flip();
+
+        int start = BLOCK_HEADER_MAX - head.remaining();
+        block.flip();
+        block.position(start);
+        block.put(head);
+        block.position(start);
+        synchronized (channel) { // keep the block in one piece if another writer shares the channel
+            while (block.hasRemaining()) bytesWritten += channel.write(block);
+        }
+
+        gamesWritten += games;
+        games = 0;
+        block.clear();
+        block.position(BLOCK_HEADER_MAX);
+    }
+}
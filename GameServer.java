@@ -0,0 +1,401 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local TCP server hosting any number of tables in one JVM, each with its own GameEngine.
+ * - Every connection gets a virtual thread. Waiting for a player's answer is a plain blocking
+ *   readLine() that parks the virtual thread, so tens of thousands of open, idle games cost
+ *   their heap (an engine and two small buffers) and no OS threads. Virtual threads need
+ *   Java 21; on older JDKs (the rest of the game builds on 17) each connection gets a pooled
+ *   platform thread instead, which is fine for hundreds of connections but not for thousands.
+ * - A table's game loop runs on the thread of the connection that created it, once every
+ *   human seat is taken; players who joined wait on theirs until the game ends.
+ * - Spectators subscribe to the table's SpectatorHub and are written to from their own virtual
+ *   threads, so a slow watcher skips ahead to a keyframe instead of holding up the table.
+ *
+ * Line protocol (answers from the server in capitals):
+ *   NEW human,greedy,human,random [seed]   seats in turn order; you take the first human seat
+ *     -> TABLE <id> WAITING <humans still to join> YOU <color>, WAITING <n> every few seconds,
+ *        then START when the table is full, or CLOSED <reason> if nobody joins in time
+ *   JOIN <id>                               take the next free human seat of a waiting table
+ *     -> TABLE <id> WAITING <humans still to join> YOU <color>
+ *   TABLES                                  -> OPEN <id> ... waiting for players, PLAYING <id> ...
+ *   WATCH <id>                              follow a table's lines until its game ends
+ *   QUIT
+ * During a game: TURN <color> <card>, EVENT <what happened>,
+ *   KEYFRAME <16 positions> or DELTA <pawn id:position ...> for the pawns that changed (see StateSync),
+ *   CHOOSE <card> <n> then n lines "<index> <move>" (answer with an index), WINNER <color>.
+ *
+ * With a move log every decision is logged and synced before it is played (group-committed
+ * across tables, see MoveLog); after a crash, java SorryGood recover <log> finishes the games.
+ *
+ * Usage: java SorryGood serve [port] [move log]   (then e.g. nc localhost 7777)
+ */
+public class GameServer {
+
+    static final int DEFAULT_PORT = 7777;
+    static final int BACKLOG = 4096;
+    static final int BUFFER_CHARS = 512; // per connection and direction; most lines are short
+    static final int HEARTBEAT_SECONDS = 5;     // WAITING lines to a creator, to notice it has gone
+    static final int JOIN_TIMEOUT_SECONDS = 600; // a table nobody joins is given up
+    static final Executor THREADS = threads(); // sessions and spectator delivery
+
+    int port;
+    MoveLog log;         // every table's decisions, if the server was started with a log
+    AtomicLong nextTable = new AtomicLong(1);
+    Map<Long, Table> waiting = new ConcurrentHashMap<>();
+    Map<Long, Table> tables = new ConcurrentHashMap<>(); // waiting or playing
+    AtomicInteger sessions = new AtomicInteger();
+    AtomicInteger playing = new AtomicInteger();
+
+    GameServer(int port, MoveLog log) {
+        this.port = port;
+        this.log = log;
+    }
+
+    // A virtual thread per task on Java 21+, looked up reflectively so the repo still builds on 17
+    static Executor threads() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // ===== Tables =====
+    static class Table {
+        long id;
+        String[] seatNames;
+        Bot[] seats = new Bot[GameEngine.PLAYERS];
+        int nextHuman = 0;              // guarded by this
+        boolean abandoned = false;      // guarded by this
+        RemoteSeat[] clients = new RemoteSeat[0]; // everyone sent the table's lines, players and watchers
+        CountDownLatch full;
+        CountDownLatch finished = new CountDownLatch(1);
+        GameEngine game;
+        StateSync sync;
+        SpectatorHub spectators = new SpectatorHub(THREADS);
+
+        Table(long id, String[] seatNames, long seed) {
+            this.id = id;
+            this.seatNames = seatNames;
+            int humans = 0;
+            for (int p = 0; p < GameEngine.PLAYERS; p++) {
+                if (seatNames[p].equals("human")) humans++;
+                else seats[p] = Simulator.createBot(seatNames[p]);
+            }
+            full = new CountDownLatch(humans);
+            game = new GameEngine(seed);
+            game.initializeGame(seed);
+            sync = new StateSync(game);
+            game.listen(event -> {
+                if (spectators.watched()) spectators.submit("EVENT " + GameEvents.describe(event));
+            });
+        }
+
+        // Seats a player and tells them where; returns the seat, or -1 if the table is full
+        synchronized int seat(RemoteSeat player) {
+            if (abandoned) return -1;
+            for (int p = nextHuman; p < GameEngine.PLAYERS; p++) {
+                if (seatNames[p].equals("human") && seats[p] == null) {
+                    seats[p] = player;
+                    watch(player);
+                    nextHuman = p + 1;
+                    // Before the countdown: the last seat starts the game, and START must not beat this
+                    player.send("TABLE " + id + " WAITING " + (full.getCount() - 1) + " YOU " + SorryGood.PLAYER_COLORS[p]);
+                    player.flush();
+                    full.countDown();
+                    return p;
+                }
+            }
+            return -1;
+        }
+
+        // Gives the table up before it fills; false if the last player got in first (play it then)
+        synchronized boolean abandon(String reason) {
+            if (full.getCount() == 0) return false;
+            abandoned = true;
+            broadcast("CLOSED " + reason);
+            flushAll();
+            finished.countDown(); // lets the players who joined go back to their sessions
+            return true;
+        }
+
+        synchronized void watch(RemoteSeat client) {
+            RemoteSeat[] more = new RemoteSeat[clients.length + 1];
+            System.arraycopy(clients, 0, more, 0, clients.length);
+            more[clients.length] = client;
+            clients = more;
+            game.listen(client);
+        }
+
+        // log, if not null, gets every decision and is synced before the decision is played
+        void play(SplittableRandom rnd, MoveLog log) throws IOException {
+            MoveBuffer moves = new MoveBuffer();
+            long logId = log == null ? 0 : log.reserveGames(1);
+            int sinceCheckpoint = 0;
+            if (log != null) log.checkpoint(logId, game);
+            broadcast("START");
+            while (!game.isOver()) {
+                int player = game.currentPlayer;
+                int card = game.prepareDecision(moves);
+                if (card != GameEngine.SAVED_SORRY_CARD) {
+                    broadcast("TURN " + SorryGood.PLAYER_COLORS[player] + " " + SorryGood.getCardName(card));
+                }
+                if (sync.pending()) broadcast(sync.line());
+                // Bots search by playing moves on the engine and taking them back: keep listeners out of it
+                GameEvents events = game.events;
+                game.events = null;
+                int choice;
+                try {
+                    choice = seats[player].chooseMove(game, card, moves, rnd);
+                } finally {
+                    game.events = events;
+                }
+                // On disk before anyone sees it played: after a crash, recover resumes from here
+                if (log != null) log.sync(log.move(logId, choice));
+                game.applyDecision(moves.get(choice));
+                if (log != null && ++sinceCheckpoint == MoveLog.CHECKPOINT_EVERY) {
+                    log.checkpoint(logId, game);
+                    sinceCheckpoint = 0;
+                }
+                flushAll();
+                spectators.snapshot(sync::keyframeLine);
+            }
+            if (log != null) log.end(logId);
+            if (sync.pending()) broadcast(sync.line()); // the winning move
+            spectators.snapshot(sync::keyframeLine);
+            broadcast(game.winner == -1 ? "DRAW" : "WINNER " + SorryGood.PLAYER_COLORS[game.winner]);
+            flushAll();
+        }
+
+        void broadcast(String line) {
+            for (RemoteSeat client : clients) client.send(line);
+            if (spectators.watched()) spectators.submit(line);
+        }
+
+        void flushAll() {
+            for (RemoteSeat client : clients) client.flush();
+        }
+    }
+
+    // ===== Connections =====
+    void serve() throws IOException {
+        try (ServerSocket server = new ServerSocket(port, BACKLOG)) {
+            System.out.println("Serving Sorry! tables on port " + server.getLocalPort());
+            while (true) {
+                Socket socket = server.accept();
+                THREADS.execute(() -> session(socket));
+            }
+        }
+    }
+
+    void session(Socket socket) {
+        sessions.incrementAndGet();
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), BUFFER_CHARS);
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), false);
+            out.println("SORRY ready: NEW seats [seed] | JOIN id | WATCH id | TABLES | QUIT");
+            out.flush();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] words = line.trim().split("\\s+");
+                switch (words[0].toUpperCase()) {
+                    case "NEW" -> newTable(words, in, out);
+                    case "JOIN" -> joinTable(words, in, out);
+                    case "WATCH" -> watchTable(words, out);
+                    case "TABLES" -> {
+                        for (long id : waiting.keySet()) out.println("OPEN " + id);
+                        for (long id : tables.keySet()) {
+                            if (!waiting.containsKey(id)) out.println("PLAYING " + id);
+                        }
+                        out.println("END");
+                    }
+                    case "QUIT" -> { return; }
+                    case "" -> { }
+                    default -> out.println("ERROR unknown command " + words[0]);
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // connection gone: only this session ends
+        } finally {
+            sessions.decrementAndGet();
+        }
+    }
+
+    void newTable(String[] words, BufferedReader in, PrintWriter out) {
+        String[] given = words.length < 2 ? new String[0] : words[1].split(",");
+        if (given.length == 0) {
+            out.println("ERROR usage: NEW human,greedy,greedy,greedy [seed]");
+            return;
+        }
+        String[] seatNames = new String[GameEngine.PLAYERS];
+        for (int p = 0; p < GameEngine.PLAYERS; p++) seatNames[p] = given[Math.min(p, given.length - 1)];
+        long seed;
+        try {
+            seed = words.length > 2 ? Long.parseLong(words[2]) : new SplittableRandom().nextLong();
+        } catch (NumberFormatException e) {
+            out.println("ERROR bad number " + words[2]);
+            return;
+        }
+
+        Table table;
+        try {
+            table = new Table(nextTable.getAndIncrement(), seatNames, seed);
+        } catch (IllegalArgumentException e) {
+            out.println("ERROR " + e.getMessage());
+            return;
+        }
+        RemoteSeat me = new RemoteSeat(in, out);
+        if (table.seat(me) == -1) { // all bots: watch it
+            table.watch(me);
+            out.println("TABLE " + table.id + " WAITING 0");
+            out.flush();
+        }
+        tables.put(table.id, table);
+        if (table.full.getCount() > 0) waiting.put(table.id, table);
+        try {
+            if (!awaitPlayers(table, out)) return;
+            playing.incrementAndGet();
+            try {
+                table.play(new SplittableRandom(seed ^ Simulator.BOT_SALT), log);
+            } catch (IOException | UncheckedIOException e) {
+                table.broadcast("CLOSED move log failed: " + e.getMessage());
+                table.flushAll();
+            } finally {
+                playing.decrementAndGet();
+            }
+        } finally {
+            waiting.remove(table.id);
+            tables.remove(table.id);
+            table.spectators.close(); // however the table ended: played out, abandoned or failed
+            table.finished.countDown();
+        }
+    }
+
+    // Waits for the table to fill while checking the creator is still connected; false if given up
+    boolean awaitPlayers(Table table, PrintWriter out) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(JOIN_TIMEOUT_SECONDS);
+        try {
+            while (!table.full.await(HEARTBEAT_SECONDS, TimeUnit.SECONDS)) {
+                out.println("WAITING " + table.full.getCount());
+                out.flush();
+                // A write to a closed socket fails by the second heartbeat at the latest
+                if (out.checkError()) return !table.abandon("creator left");
+                if (System.nanoTime() > deadline) return !table.abandon("nobody joined");
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return !table.abandon("server stopping");
+        }
+    }
+
+    void joinTable(String[] words, BufferedReader in, PrintWriter out) {
+        Table table;
+        try {
+            table = words.length > 1 ? waiting.get(Long.parseLong(words[1])) : null;
+        } catch (NumberFormatException e) {
+            out.println("ERROR bad number " + words[1]);
+            return;
+        }
+        if (table == null) {
+            out.println("ERROR no such table waiting");
+            return;
+        }
+        if (table.seat(new RemoteSeat(in, out)) == -1) {
+            out.println("ERROR table is full");
+            return;
+        }
+        if (table.full.getCount() == 0) waiting.remove(table.id);
+        try {
+            table.finished.await(); // the creator's thread plays the game, reading our answers
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void watchTable(String[] words, PrintWriter out) {
+        Table table;
+        try {
+            table = words.length > 1 ? tables.get(Long.parseLong(words[1])) : null;
+        } catch (NumberFormatException e) {
+            out.println("ERROR bad number " + words[1]);
+            return;
+        }
+        if (table == null) {
+            out.println("ERROR no such table");
+            return;
+        }
+        out.println("WATCHING " + table.id);
+        out.flush();
+        Spectator spectator = new Spectator(out);
+        table.spectators.subscribe(spectator);
+        try {
+            spectator.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.println("END");
+    }
+
+    // Writes a table's lines to a watcher's connection, on the hub's delivery thread
+    static class Spectator implements Flow.Subscriber<String> {
+        PrintWriter out;
+        Flow.Subscription subscription;
+        CountDownLatch done = new CountDownLatch(1);
+
+        Spectator(PrintWriter out) { this.out = out; }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(SpectatorHub.BUFFER);
+        }
+
+        @Override
+        public void onNext(String line) {
+            out.println(line);
+            out.flush();
+            if (out.checkError()) { // watcher gone
+                subscription.cancel();
+                done.countDown();
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable error) { done.countDown(); }
+
+        @Override
+        public void onComplete() { done.countDown(); }
+    }
+
+    // args: [port] [move log]
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        MoveLog log = args.length > 1 ? new MoveLog(Path.of(args[1])) : null;
+        new GameServer(port, log).serve();
+    }
+}
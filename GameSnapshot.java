@@ -0,0 +1,131 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Saves and restores a whole game in a fixed 71-byte binary form: enough to carry on from the
+ * next decision with the same draws, so a crashed or stopped game resumes exactly.
+ *
+ * Layout (little-endian):
+ *   "SSNP" | version 1 byte
+ *   seed 8 | rng state 8                   (the deck draws pick up where they stopped)
+ *   current player 1 | winner + 1 1 | turns 4 | flags 1 (bit 0: saved Sorry! declined this turn)
+ *   pawns 16 x 1 byte: position + 1        (Start = 0, Home = 66)
+ *   saved Sorry! cards 4 x 1 byte, unsigned (0 to 255; write() refuses a game with more)
+ *   deck index 1 | deck 22 bytes: the 44 cards as CARD_INDEX nibbles, in deck order
+ *     (the undrawn cards' order matters: the lazy shuffle draws from it)
+ *
+ * Bots keep their own random streams (see GameEngine.rng), which are not saved: a resumed
+ * game deals the same cards, but a random bot may choose differently.
+ */
+public class GameSnapshot {
+
+    static final byte[] MAGIC = {'S', 'S', 'N', 'P'};
+    static final int VERSION = 1;
+    static final int DECLINED = 1;
+    static final int BYTES = 4 + 1 + 8 + 8 + 1 + 1 + 4 + 1
+            + GameEngine.PLAYERS * GameEngine.PAWNS_PER_PLAYER + GameEngine.PLAYERS + 1 + GameEngine.DECK_SIZE / 2;
+
+    // Throws IllegalArgumentException if game holds a count the layout has no room for
+    static void checkWritable(GameEngine game) {
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            int saved = game.savedSorryCards[p];
+            if (saved < 0 || saved > 0xFF) {
+                throw new IllegalArgumentException("Player " + p + " has " + saved + " saved Sorry! cards; a snapshot holds 0 to 255");
+            }
+        }
+    }
+
+    // Writes game into out (BYTES bytes, out must be little-endian). Any point between decisions.
+    // A game checkWritable() refuses is refused before anything is written.
+    static void write(GameEngine game, ByteBuffer out) {
+        checkWritable(game);
+        out.put(MAGIC).put((byte) VERSION);
+        out.putLong(game.seed).putLong(game.rng.state);
+        out.put((byte) game.currentPlayer).put((byte) (game.winner + 1)).putInt(game.turns)
+                .put((byte) (game.savedSorryDeclined ? DECLINED : 0));
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            for (int pawn = 0; pawn < GameEngine.PAWNS_PER_PLAYER; pawn++) {
+                out.put((byte) (game.pawnPositions[p][pawn] + 1));
+            }
+        }
+        for (int p = 0; p < GameEngine.PLAYERS; p++) out.put((byte) game.savedSorryCards[p]);
+        out.put((byte) game.deck.drawn);
+        int[] cards = game.deck.cards;
+        for (int i = 0; i < GameEngine.DECK_SIZE; i += 2) {
+            out.put((byte) (GameEngine.CARD_INDEX[cards[i]] | GameEngine.CARD_INDEX[cards[i + 1]] << 4));
+        }
+    }
+
+    // Loads a snapshot into game, replacing its state; the input is checked before anything changes
+    static void read(GameEngine game, ByteBuffer in) throws IOException {
+        if (in.remaining() < BYTES) throw new IOException("Snapshot too short");
+        for (byte b : MAGIC) {
+            if (in.get() != b) throw new IOException("Not a game snapshot (bad magic)");
+        }
+        int version = in.get();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+
+        long seed = in.getLong();
+        long rngState = in.getLong();
+        int player = in.get();
+        int winner = in.get() - 1;
+        int turns = in.getInt();
+        int flags = in.get();
+        int[] pawns = new int[GameEngine.PLAYERS * GameEngine.PAWNS_PER_PLAYER];
+        for (int i = 0; i < pawns.length; i++) pawns[i] = in.get() - 1;
+        int[] saved = new int[GameEngine.PLAYERS];
+        for (int p = 0; p < GameEngine.PLAYERS; p++) saved[p] = in.get() & 0xFF; // unsigned: never negative
+        int drawn = in.get();
+        int[] cards = new int[GameEngine.DECK_SIZE];
+        int[] copies = new int[Deck.TYPES];
+        for (int i = 0; i < GameEngine.DECK_SIZE; i += 2) {
+            int b = in.get() & 0xFF;
+            cards[i] = b & 0xF;
+            cards[i + 1] = b >>> 4;
+        }
+        for (int i = 0; i < cards.length; i++) {
+            if (cards[i] >= Deck.TYPES) throw new IOException("Corrupt snapshot (bad card)");
+            copies[cards[i]]++;
+            cards[i] = GameEngine.CARD_TYPES[cards[i]];
+        }
+        for (int c : copies) {
+            if (c != Deck.COPIES) throw new IOException("Corrupt snapshot (deck is not a full set)");
+        }
+        for (int pos : pawns) {
+            if (pos < GameEngine.START || pos > GameEngine.HOME_POS) throw new IOException("Corrupt snapshot (bad position)");
+        }
+        if (player < 0 || player >= GameEngine.PLAYERS || winner < -1 || winner >= GameEngine.PLAYERS
+                || drawn < 0 || drawn > GameEngine.DECK_SIZE || turns < 0) {
+            throw new IOException("Corrupt snapshot");
+        }
+
+        game.seed = seed;
+        game.rng.state = rngState;
+        game.currentPlayer = player;
+        game.winner = winner;
+        game.turns = turns;
+        game.pendingCard = -1;
+        game.savedSorryDeclined = (flags & DECLINED) != 0;
+        for (int i = 0; i < pawns.length; i++) {
+            game.pawnPositions[i / GameEngine.PAWNS_PER_PLAYER][i % GameEngine.PAWNS_PER_PLAYER] = pawns[i];
+        }
+        System.arraycopy(saved, 0, game.savedSorryCards, 0, GameEngine.PLAYERS);
+        System.arraycopy(cards, 0, game.deck.cards, 0, GameEngine.DECK_SIZE);
+        game.deck.rewind(drawn);
+        game.rebuildOccupancy();
+        game.rehash();
+    }
+
+    static byte[] toBytes(GameEngine game) {
+        ByteBuffer out = ByteBuffer.allocate(BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        write(game, out);
+        return out.array();
+    }
+
+    static void load(Path file, GameEngine game) throws IOException {
+        read(game, ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN));
+    }
+}
@@ -0,0 +1,45 @@
+import java.util.SplittableRandom;
+
+/**
+ * One-ply greedy player: tries every legal move and keeps the one that leaves
+ * its pawns furthest ahead of the best opponent (see GameEngine.progress).
+ */
+public class GreedyBot implements Bot {
+
+    PackedState before = new PackedState();
+
+    @Override
+    public int chooseMove(GameEngine game, int card, MoveBuffer moves, SplittableRandom rnd) {
+        int player = game.currentPlayer;
+        before.capture(game);
+
+        int best = 0;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            game.applyMove(player, moves.get(i));
+            int score = score(game, player);
+            before.restore(game);
+            // Break ties randomly so equal moves don't always favour pawn 1
+            if (score > bestScore || (score == bestScore && rnd.nextBoolean())) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    static int score(GameEngine game, int player) {
+        int bestOpponent = Integer.MIN_VALUE;
+        int mine = 0;
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            int total = 0;
+            for (int pawn = 0; pawn < GameEngine.PAWNS_PER_PLAYER; pawn++) {
+                total += GameEngine.progress(p, game.pawnPositions[p][pawn]);
+            }
+            total += 10 * game.savedSorryCards[p];
+            if (p == player) mine = total;
+            else bestOpponent = Math.max(bestOpponent, total);
+        }
+        return mine - bestOpponent;
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * A controller that answers every question with the next typed number, exactly like the
+ * original console prompts: pawns and targets are entered 1-based.
+ */
+public abstract class IntInputController implements PlayerController {
+
+    abstract int nextInt();
+
+    @Override
+    public int chooseAction(GameEngine game, int player, int card) { return nextInt(); }
+
+    @Override
+    public int choosePawn(GameEngine game, int player) { return nextInt() - 1; }
+
+    @Override
+    public int chooseSplit(GameEngine game, int player) { return nextInt(); }
+
+    @Override
+    public int chooseTarget(GameEngine game, int player, int[] tPlayer, int[] tPawn, int tCount) { return nextInt() - 1; }
+}
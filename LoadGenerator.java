@@ -0,0 +1,284 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * Simulated players for GameGateway, all on one selector thread, measuring turn latency:
+ * the time from sending an ANSWER to receiving the next DECISION (the server playing the
+ * answer and the three bot turns after it, plus the network).
+ * - Each client answers with a random legal move after `think` ms and starts a new game when
+ *   one ends, so the load stays steady for the whole run.
+ * - Latencies go into a 1 us histogram; p50/p99/p99.9 are printed every second and for the run.
+ *   Turns while clients are still connecting are not counted.
+ * - Connections that fail (refused, dropped, out of file descriptors) are counted, not fatal:
+ *   measuring starts once every attempt has connected or failed, with however many made it.
+ *
+ * Usage: java SorryGood loadgen [host] [port] [clients] [seconds] [think ms]
+ * More clients than one process has file descriptors need several loadgen processes.
+ */
+public class LoadGenerator {
+
+    static final int CONNECTS_PER_TICK = 500; // stay under the server's accept backlog
+    static final int MAX_MICROS = 1_000_000;  // slower turns count in the last bucket
+
+    // ===== Clients =====
+    static class Client {
+        SocketChannel channel;
+        SelectionKey key;
+        ByteBuffer in;                       // partial message, if any
+        byte[] pawns = new byte[StateSync.PAWNS];
+        int choices;                         // moves in the pending DECISION
+        boolean newGame;                     // next scheduled send is NEW_GAME, not ANSWER
+        long answeredAt;                     // nanoTime of the last ANSWER, 0 = none outstanding
+        long dueAt;                          // when the scheduled send goes out
+        boolean connected;
+    }
+
+    InetSocketAddress address;
+    int clientCount;
+    long thinkNanos;
+    Selector selector;
+    SplittableRandom rnd = new SplittableRandom(42);
+    ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 << 10);
+    ByteBuffer writeBuffer = ByteBuffer.allocateDirect(64);
+    ArrayDeque<Client> scheduled = new ArrayDeque<>(); // due times ascending: think time is constant
+    BufferPool pool = new BufferPool(GameGateway.BUFFER_BYTES);
+
+    int connected = 0;   // currently connected
+    int failed = 0;      // attempts that never connected
+    int dropped = 0;     // connected, then lost
+    boolean measuring = false;
+    long[] histogram = new long[MAX_MICROS + 1];
+    long[] second = new long[MAX_MICROS + 1];
+    long turns = 0;
+    long games = 0;
+    long turnsThisSecond = 0;
+
+    LoadGenerator(InetSocketAddress address, int clientCount, long thinkNanos) {
+        this.address = address;
+        this.clientCount = clientCount;
+        this.thinkNanos = thinkNanos;
+    }
+
+    void run(long seconds) throws IOException {
+        selector = Selector.open();
+        int opened = 0;
+        long end = Long.MAX_VALUE;
+        long nextReport = System.nanoTime() + 1_000_000_000L;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < CONNECTS_PER_TICK && opened < clientCount; i++, opened++) connect();
+            if (!measuring && connected + failed + dropped == clientCount) {
+                if (connected == 0) {
+                    System.out.println("No client connected (" + failed + " failed, " + dropped + " dropped)");
+                    return;
+                }
+                measuring = true;
+                end = System.nanoTime() + seconds * 1_000_000_000L;
+                System.out.println(connected + " clients connected" + (failed > 0 ? " (" + failed + " failed)" : "")
+                        + ", measuring for " + seconds + " s");
+            }
+
+            long now = System.nanoTime();
+            long wait = scheduled.isEmpty() ? 100 : Math.max(1, (scheduled.peek().dueAt - now) / 1_000_000);
+            selector.select(opened < clientCount ? 1 : Math.min(wait, 100));
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Client c = (Client) key.attachment();
+                boolean connecting = key.isConnectable();
+                try {
+                    if (connecting) finishConnect(c);
+                    else if (key.isReadable()) read(c);
+                } catch (IOException e) {
+                    lose(c, connecting, e);
+                }
+            }
+            now = System.nanoTime();
+            while (!scheduled.isEmpty() && scheduled.peek().dueAt <= now) send(scheduled.poll());
+
+            if (now >= nextReport) {
+                nextReport += 1_000_000_000L;
+                if (measuring) {
+                    System.out.println(String.format("%,d turns/s | p50 %s | p99 %s | p99.9 %s", turnsThisSecond,
+                            micros(second, 0.50), micros(second, 0.99), micros(second, 0.999)));
+                    java.util.Arrays.fill(second, 0);
+                } else {
+                    System.out.println("Connecting: " + connected + " of " + clientCount + (failed > 0 ? ", " + failed + " failed" : ""));
+                }
+                turnsThisSecond = 0;
+            }
+        }
+        System.out.println(String.format("=== %,d of %,d clients connected (%,d failed, %,d dropped), %,d turns, %,d games in %d s (%,.0f turns/s) ===",
+                connected, clientCount, failed, dropped, turns, games, seconds, (double) turns / seconds));
+        System.out.println("Turn latency: p50 " + micros(histogram, 0.50) + " | p90 " + micros(histogram, 0.90)
+                + " | p99 " + micros(histogram, 0.99) + " | p99.9 " + micros(histogram, 0.999)
+                + " | max " + micros(histogram, 1.0));
+    }
+
+    void connect() {
+        Client c = new Client();
+        try {
+            c.channel = SocketChannel.open(); // EMFILE here when the process runs out of descriptors
+            c.channel.configureBlocking(false);
+            c.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            c.key = c.channel.register(selector, SelectionKey.OP_CONNECT, c);
+            if (c.channel.connect(address)) finishConnect(c);
+        } catch (IOException e) {
+            lose(c, true, e);
+        }
+    }
+
+    void finishConnect(Client c) throws IOException {
+        if (!c.channel.finishConnect()) return;
+        c.key.interestOps(SelectionKey.OP_READ);
+        c.connected = true;
+        connected++;
+        c.newGame = true;
+        send(c);
+    }
+
+    // Counts a client that failed to connect or was dropped, and reports the first few
+    void lose(Client c, boolean connecting, IOException e) {
+        if (c.key != null) c.key.cancel();
+        if (c.channel != null) {
+            try {
+                c.channel.close();
+            } catch (IOException ignored) {
+                // closing anyway
+            }
+        }
+        String what;
+        if (c.connected) {
+            c.connected = false;
+            connected--;
+            dropped++;
+            what = "Client dropped: ";
+        } else if (connecting) {
+            failed++;
+            what = "Connect failed: ";
+        } else {
+            return; // already counted
+        }
+        if (failed + dropped <= 5) System.out.println(what + e.getMessage());
+    }
+
+    // ===== Protocol =====
+    void read(Client c) throws IOException {
+        readBuffer.clear();
+        if (c.in != null) {
+            c.in.flip();
+            readBuffer.put(c.in);
+            pool.give(c.in);
+            c.in = null;
+        }
+        if (c.channel.read(readBuffer) < 0) throw new IOException("server closed the connection");
+        readBuffer.flip();
+        while (readBuffer.remaining() >= GameGateway.HEADER_BYTES) {
+            int length = readBuffer.getShort(readBuffer.position()) & 0xFFFF;
+            if (readBuffer.remaining() < 2 + length) break;
+            int end = readBuffer.position() + 2 + length;
+            readBuffer.getShort();
+            handle(c, readBuffer.get());
+            readBuffer.position(end);
+        }
+        if (readBuffer.hasRemaining()) {
+            c.in = pool.take();
+            c.in.put(readBuffer);
+        }
+    }
+
+    void handle(Client c, int type) {
+        switch (type) {
+            case GameGateway.KEYFRAME -> readBuffer.get(c.pawns);
+            case GameGateway.DELTA -> {
+                int count = readBuffer.get();
+                for (int i = 0; i < count; i++) {
+                    int pawn = readBuffer.get();
+                    c.pawns[pawn] = readBuffer.get();
+                }
+            }
+            case GameGateway.DECISION -> {
+                readBuffer.get(); // card
+                c.choices = readBuffer.get() & 0xFF;
+                if (c.answeredAt != 0) record(System.nanoTime() - c.answeredAt);
+                c.answeredAt = 0;
+                schedule(c, false);
+            }
+            case GameGateway.GAME_OVER -> {
+                c.answeredAt = 0;
+                games++;
+                schedule(c, true);
+            }
+            default -> { }
+        }
+    }
+
+    void schedule(Client c, boolean newGame) {
+        c.newGame = newGame;
+        if (thinkNanos == 0) {
+            send(c);
+            return;
+        }
+        c.dueAt = System.nanoTime() + thinkNanos;
+        scheduled.add(c);
+    }
+
+    void send(Client c) {
+        if (!c.channel.isOpen()) return;
+        writeBuffer.clear();
+        if (c.newGame) {
+            writeBuffer.putShort((short) (1 + GameGateway.NEW_GAME_BYTES)).put((byte) GameGateway.NEW_GAME);
+            writeBuffer.putLong(rnd.nextLong()).put((byte) 1).put((byte) 1).put((byte) 1);
+        } else {
+            writeBuffer.putShort((short) 2).put((byte) GameGateway.ANSWER).put((byte) rnd.nextInt(c.choices));
+            c.answeredAt = System.nanoTime();
+        }
+        writeBuffer.flip();
+        try {
+            c.channel.write(writeBuffer); // a few bytes into an idle socket: never partial in practice
+        } catch (IOException e) {
+            lose(c, false, e);
+        }
+    }
+
+    // ===== Latency =====
+    void record(long nanos) {
+        if (!measuring) return;
+        int us = (int) Math.min(nanos / 1000, MAX_MICROS);
+        histogram[us]++;
+        second[us]++;
+        turns++;
+        turnsThisSecond++;
+    }
+
+    static String micros(long[] counts, double quantile) {
+        long total = 0;
+        for (long n : counts) total += n;
+        if (total == 0) return "-";
+        long target = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int us = 0; us < counts.length; us++) {
+            seen += counts[us];
+            if (seen >= Math.max(1, target)) return us >= 1000 ? String.format("%.1f ms", us / 1000.0) : us + " us";
+        }
+        return "-";
+    }
+
+    // args: [host] [port] [clients] [seconds] [think ms]
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameGateway.DEFAULT_PORT;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        long seconds = args.length > 3 ? Long.parseLong(args[3]) : 10;
+        long think = args.length > 4 ? Long.parseLong(args[4]) : 0;
+        new LoadGenerator(new InetSocketAddress(host, port), clients, think * 1_000_000L).run(seconds);
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.SplittableRandom;
+
+/**
+ * Monte Carlo Tree Search player (UCT) that plans with the real GameEngine rules.
+ *
+ * The tree alternates two kinds of nodes:
+ *   DECISION - a player chooses among MoveGenerator's moves; children are keyed by the move
+ *   CHANCE   - the position after a move; children are keyed by the next card drawn
+ * Every iteration copies the root game into a scratch engine that draws with the search's
+ * own RNG. The Deck only picks a card when it is drawn, so chance nodes follow the real deck
+ * odds and there is no hidden order to peek at.
+ * Playouts are random games to the end; a win counts 1 for the player who made each move.
+ *
+ * The tree lives in flat preallocated arrays, so a search allocates nothing; it is rebuilt
+ * for every decision and stops at an iteration count or a time budget, whichever comes first.
+ */
+public class MctsBot implements Bot {
+
+    static final int MAX_NODES = 1 << 18;
+    static final double EXPLORATION = 0.7;
+
+    static final int DECISION = 0;
+    static final int CHANCE = 1;
+
+    // Budget per decision
+    int maxIterations;
+    long maxNanos;
+
+    // ===== Tree (flat arrays) =====
+    int[] type = new int[MAX_NODES];
+    int[] key = new int[MAX_NODES];       // move (under DECISION) or card (under CHANCE)
+    int[] mover = new int[MAX_NODES];     // player who made the move into a CHANCE node
+    int[] firstChild = new int[MAX_NODES];
+    int[] nextSibling = new int[MAX_NODES];
+    int[] childCount = new int[MAX_NODES];
+    int[] visits = new int[MAX_NODES];
+    double[] wins = new double[MAX_NODES];
+    int nodeCount = 0;
+
+    int[] path = new int[4 * GameEngine.MAX_TURNS];
+
+    // Scratch game and move lists, reused
+    GameEngine sim = new GameEngine(0);
+    MoveBuffer treeMoves = new MoveBuffer();
+    MoveBuffer playoutMoves = new MoveBuffer();
+
+    int lastIterations = 0;
+
+    MctsBot(int maxIterations, long maxMillis) {
+        this.maxIterations = maxIterations;
+        this.maxNanos = maxMillis * 1_000_000L;
+    }
+
+    int newNode(int nodeType, int nodeKey, int nodeMover) {
+        int n = nodeCount++;
+        type[n] = nodeType;
+        key[n] = nodeKey;
+        mover[n] = nodeMover;
+        firstChild[n] = -1;
+        nextSibling[n] = -1;
+        childCount[n] = 0;
+        visits[n] = 0;
+        wins[n] = 0;
+        return n;
+    }
+
+    int addChild(int parent, int nodeType, int nodeKey, int nodeMover) {
+        int child = newNode(nodeType, nodeKey, nodeMover);
+        nextSibling[child] = firstChild[parent];
+        firstChild[parent] = child;
+        childCount[parent]++;
+        return child;
+    }
+
+    int findChild(int parent, int childKey) {
+        for (int c = firstChild[parent]; c != -1; c = nextSibling[c]) {
+            if (key[c] == childKey) return c;
+        }
+        return -1;
+    }
+
+    // UCB1 over the children of a fully expanded node, scored for the player who moves there
+    int selectUct(int node) {
+        double logParent = Math.log(Math.max(1, visits[node]));
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int c = firstChild[node]; c != -1; c = nextSibling[c]) {
+            double score = wins[c] / visits[c] + EXPLORATION * Math.sqrt(logParent / visits[c]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int chooseMove(GameEngine game, int card, MoveBuffer moves, SplittableRandom rnd) {
+        if (moves.size() == 1) return 0;
+
+        nodeCount = 0;
+        int root = newNode(DECISION, card, -1);
+        sim.rng.state = rnd.nextLong(); // draws in the search follow the bot's own stream
+
+        long start = System.nanoTime();
+        int iterations = 0;
+        while (iterations < maxIterations) {
+            // Check the clock every 64 iterations, not every one
+            if ((iterations & 63) == 0 && System.nanoTime() - start >= maxNanos) break;
+            iterate(game, card, moves, root, rnd);
+            iterations++;
+        }
+        lastIterations = iterations;
+
+        // Most visited root move
+        int bestMove = moves.get(0);
+        int bestVisits = -1;
+        for (int c = firstChild[root]; c != -1; c = nextSibling[c]) {
+            if (visits[c] > bestVisits) {
+                bestVisits = visits[c];
+                bestMove = key[c];
+            }
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == bestMove) return i;
+        }
+        return 0;
+    }
+
+    void iterate(GameEngine game, int card, MoveBuffer rootMoves, int root, SplittableRandom rnd) {
+        sim.copyFrom(game);
+        sim.pendingCard = card;
+
+        int depth = 0;
+        int node = root;
+        path[depth++] = node;
+        MoveBuffer moves = rootMoves;
+        boolean expanded = false;
+
+        while (!sim.isOver()) {
+            if (type[node] == DECISION) {
+                // Moves are expanded in generator order, so the first untried one is moves[childCount]
+                int child;
+                if (childCount[node] < moves.size() && nodeCount < MAX_NODES) {
+                    int move = moves.get(childCount[node]);
+                    child = addChild(node, CHANCE, move, sim.currentPlayer);
+                    expanded = true;
+                } else if (childCount[node] < moves.size()) {
+                    // Tree is full: finish this decision at random and play out
+                    sim.applyDecision(moves.get(rnd.nextInt(moves.size())));
+                    break;
+                } else {
+                    child = selectUct(node);
+                }
+                sim.applyDecision(key[child]);
+                node = child;
+                path[depth++] = node;
+                if (expanded) break;
+            } else {
+                int drawn = sim.prepareDecision(treeMoves);
+                moves = treeMoves;
+                int child = findChild(node, drawn);
+                if (child == -1) {
+                    if (nodeCount >= MAX_NODES) {
+                        // Tree is full: finish this decision at random and play out
+                        sim.applyDecision(moves.get(rnd.nextInt(moves.size())));
+                        break;
+                    }
+                    child = addChild(node, DECISION, drawn, -1);
+                }
+                node = child;
+                path[depth++] = node;
+            }
+        }
+
+        int winner = playout(rnd);
+        for (int i = 0; i < depth; i++) {
+            int n = path[i];
+            visits[n]++;
+            if (winner == -1) wins[n] += 1.0 / GameEngine.PLAYERS;
+            else if (mover[n] == winner) wins[n] += 1;
+        }
+    }
+
+    // Random moves until someone wins; returns the winner or -1
+    int playout(SplittableRandom rnd) {
+        while (!sim.isOver()) {
+            sim.prepareDecision(playoutMoves);
+            sim.applyDecision(playoutMoves.get(rnd.nextInt(playoutMoves.size())));
+        }
+        return sim.winner;
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Moves packed into a single int so move lists can live in primitive buffers.
+ *
+ * Bits:
+ *   0-3   kind (PASS, FROM_START, STEP, SPLIT, SWITCH, SORRY, SAVE_SORRY)
+ *   4-5   pawn that moves (first pawn for SPLIT, own pawn for SWITCH)
+ *   6-10  spaces + 16 (signed: STEP can go backward; SPLIT stores the first pawn's share)
+ *   11-12 other player (SWITCH / SORRY target)
+ *   13-14 other pawn (SWITCH / SORRY target, second pawn for SPLIT)
+ */
+public class Move {
+
+    // ===== Kinds =====
+    static final int PASS = 0;        // no legal move, or declining a saved Sorry!
+    static final int FROM_START = 1;
+    static final int STEP = 2;        // one pawn forward/backward
+    static final int SPLIT = 3;       // 7 split between two pawns
+    static final int SWITCH = 4;      // 11 swap with an opponent
+    static final int SORRY = 5;       // Sorry! bump from Start
+    static final int SAVE_SORRY = 6;
+
+    static final int SPACES_BIAS = 16;
+
+    static int encode(int kind, int pawn, int spaces, int otherPlayer, int otherPawn) {
+        return kind
+                | (pawn << 4)
+                | ((spaces + SPACES_BIAS) << 6)
+                | (otherPlayer << 11)
+                | (otherPawn << 13);
+    }
+
+    static int step(int pawn, int spaces) { return encode(STEP, pawn, spaces, 0, 0); }
+
+    static int split(int pawn, int first, int secondPawn) { return encode(SPLIT, pawn, first, 0, secondPawn); }
+
+    static int switchWith(int pawn, int otherPlayer, int otherPawn) { return encode(SWITCH, pawn, 0, otherPlayer, otherPawn); }
+
+    static int sorry(int otherPlayer, int otherPawn) { return encode(SORRY, 0, 0, otherPlayer, otherPawn); }
+
+    static int of(int kind) { return encode(kind, 0, 0, 0, 0); }
+
+    static int kind(int move) { return move & 0xF; }
+
+    static int pawn(int move) { return (move >>> 4) & 0x3; }
+
+    static int spaces(int move) { return ((move >>> 6) & 0x1F) - SPACES_BIAS; }
+
+    static int otherPlayer(int move) { return (move >>> 11) & 0x3; }
+
+    static int otherPawn(int move) { return (move >>> 13) & 0x3; }
+
+    // Short text for logs and debugging, e.g. "P2+5", "P1:3/P4:4", "SORRY Blue 2"
+    static String describe(int move) {
+        switch (kind(move)) {
+            case FROM_START: return "START";
+            case STEP: return "P" + (pawn(move) + 1) + (spaces(move) > 0 ? "+" : "") + spaces(move);
+            case SPLIT: return "P" + (pawn(move) + 1) + ":" + spaces(move) + "/P" + (otherPawn(move) + 1) + ":" + (7 - spaces(move));
+            case SWITCH: return "P" + (pawn(move) + 1) + " SWITCH " + SorryGood.PLAYER_COLORS[otherPlayer(move)] + " " + (otherPawn(move) + 1);
+            case SORRY: return "SORRY " + SorryGood.PLAYER_COLORS[otherPlayer(move)] + " " + (otherPawn(move) + 1);
+            case SAVE_SORRY: return "SAVE";
+            default: return "PASS";
+        }
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * Reusable list of encoded moves (see Move). Meant to be allocated once per
+ * player/thread and cleared between calls, so move generation makes no garbage.
+ */
+public class MoveBuffer {
+
+    // Worst case is a 7 split: 4 * 3 pawn pairs * 6 ways, plus the single-pawn moves
+    static final int CAPACITY = 128;
+
+    int[] moves = new int[CAPACITY];
+    int size = 0;
+
+    void clear() { size = 0; }
+
+    void add(int move) { moves[size++] = move; }
+
+    int get(int i) { return moves[i]; }
+
+    int size() { return size; }
+
+    boolean isEmpty() { return size == 0; }
+}
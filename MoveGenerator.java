@@ -0,0 +1,132 @@
+/**
+ * Lists every legal move for a drawn card into a MoveBuffer.
+ * - Same rules as the console prompts in SorryGood, but nothing is read or printed.
+ * - Moves are encoded ints (see Move); apply one with GameEngine.applyMove().
+ * - If a card has no legal move the buffer gets a single Move.PASS.
+ */
+public class MoveGenerator {
+
+    static final int PLAYERS = GameEngine.PLAYERS;
+    static final int PAWNS_PER_PLAYER = GameEngine.PAWNS_PER_PLAYER;
+
+    // Fills out with the moves for state.currentPlayer and returns how many there are
+    static int generateMoves(GameEngine state, int card, MoveBuffer out) {
+        out.clear();
+        int player = state.currentPlayer;
+
+        switch (card) {
+            case 1:
+            case 2:
+                if (state.canMoveFromStart(player)) out.add(Move.of(Move.FROM_START));
+                addSteps(state, player, card, out);
+                break;
+            case 3:
+            case 5:
+            case 8:
+            case 12:
+                addSteps(state, player, card, out);
+                break;
+            case 4:
+                addSteps(state, player, -4, out);
+                break;
+            case 7:
+                addSteps(state, player, 7, out);
+                addSplits(state, player, out);
+                break;
+            case 10:
+                addSteps(state, player, 10, out);
+                addSteps(state, player, -1, out);
+                break;
+            case 11:
+                addSteps(state, player, 11, out);
+                addSwitches(state, player, out);
+                break;
+            case 13:
+                addSorryTargets(state, player, out);
+                out.add(Move.of(Move.SAVE_SORRY));
+                break;
+        }
+
+        if (out.isEmpty()) out.add(Move.of(Move.PASS));
+        return out.size();
+    }
+
+    // Start-of-turn choice for a player holding saved Sorry! cards: PASS (draw instead) or a target
+    static int generateSavedSorryMoves(GameEngine state, MoveBuffer out) {
+        out.clear();
+        out.add(Move.of(Move.PASS));
+        addSorryTargets(state, state.currentPlayer, out);
+        return out.size();
+    }
+
+    static void addSteps(GameEngine state, int player, int spaces, MoveBuffer out) {
+        for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
+            if (state.canMovePawn(player, pawn, spaces)) out.add(Move.step(pawn, spaces));
+        }
+    }
+
+    // Every (first pawn, first share, second pawn) split of a 7 where both halves are legal.
+    // The second half is checked against the board as the first half leaves it: the first
+    // pawn's new square blocks, and own pawns swept by its slide are back in Start.
+    static void addSplits(GameEngine state, int player, MoveBuffer out) {
+        int[] positions = state.pawnPositions[player];
+        for (int pawn1 = 0; pawn1 < PAWNS_PER_PLAYER; pawn1++) {
+            int pos1 = positions[pawn1];
+            for (int first = 1; first <= 6; first++) {
+                int i1 = MoveTables.index(player, pos1, first);
+                int land1 = MoveTables.LAND[i1];
+                if (land1 < 0) continue;
+                if (GameEngine.onTrack(land1) && state.isOwnPawnAt(player, land1)) continue;
+
+                // Where pawn1 finally rests, and which squares its slide swept
+                int end1 = MoveTables.FINAL[i1];
+                long swept = MoveTables.SWEPT[i1];
+
+                int second = 7 - first;
+                for (int pawn2 = 0; pawn2 < PAWNS_PER_PLAYER; pawn2++) {
+                    if (pawn2 == pawn1) continue;
+                    int pos2 = positions[pawn2];
+                    if (isSwept(swept, pos2)) continue; // sent back to Start
+
+                    int land2 = MoveTables.LAND[MoveTables.index(player, pos2, second)];
+                    if (land2 < 0) continue;
+                    if (GameEngine.onTrack(land2)) {
+                        if (land2 == end1) continue;
+                        int occ = state.occupantAt(land2);
+                        if (occ != GameEngine.EMPTY && occ / PAWNS_PER_PLAYER == player
+                                && occ % PAWNS_PER_PLAYER != pawn1 && !isSwept(swept, land2)) {
+                            continue;
+                        }
+                    }
+                    out.add(Move.split(pawn1, first, pawn2));
+                }
+            }
+        }
+    }
+
+    static boolean isSwept(long swept, int pos) {
+        return GameEngine.onTrack(pos) && ((swept >>> pos) & 1) != 0;
+    }
+
+    static void addSwitches(GameEngine state, int player, MoveBuffer out) {
+        for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
+            if (!GameEngine.onTrack(state.pawnPositions[player][pawn])) continue;
+            for (int p = 0; p < PLAYERS; p++) {
+                if (p == player) continue;
+                for (int other = 0; other < PAWNS_PER_PLAYER; other++) {
+                    if (GameEngine.onTrack(state.pawnPositions[p][other])) out.add(Move.switchWith(pawn, p, other));
+                }
+            }
+        }
+    }
+
+    static void addSorryTargets(GameEngine state, int player, MoveBuffer out) {
+        if (state.findStartPawn(player) == -1) return;
+        for (int p = 0; p < PLAYERS; p++) {
+            if (p == player) continue;
+            for (int other = 0; other < PAWNS_PER_PLAYER; other++) {
+                if (GameEngine.onTrack(state.pawnPositions[p][other])) out.add(Move.sorry(p, other));
+            }
+        }
+    }
+}
@@ -0,0 +1,368 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead log of decisions for many games sharing one file, with periodic checkpoints.
+ * - move() logs a decision before it is applied; every CHECKPOINT_EVERY decisions the game
+ *   logs a GameSnapshot, so recovery replays at most that many decisions per game.
+ * - Group commit: callers only copy their record into a shared buffer. One writer thread takes
+ *   everything buffered so far, writes it as one frame with one write and one fsync, and then
+ *   wakes every caller waiting in sync() on a record in it. A thousand games logging at once
+ *   cost one fsync, not a thousand.
+ * - move() does not wait for the disk. A caller that must not act on a decision before it is
+ *   durable (GameServer, before applying a player's move) waits in sync() on the sequence number.
+ * - Games are numbered per log: reserveGames() hands out numbers above every one already in the
+ *   file, so a new run on an old log never takes over an unfinished game's number.
+ * - recover() reads the log front to back and rebuilds every unfinished game: its last
+ *   checkpoint, then the decisions logged after it through prepareDecision/applyDecision.
+ *   The recover command then plays those games out with bots, logging to the same file.
+ *
+ * File:   "SWAL" | version int | frames
+ * Frame:  payload length int | CRC32C of payload int | records
+ * Record: MOVE       game varint | choice varint
+ *         CHECKPOINT game varint | GameSnapshot (GameSnapshot.BYTES)
+ *         END        game varint
+ *   each starting with its type byte.
+ * A frame cut short by a crash fails its length or CRC check; it and anything after it are
+ * dropped when the log is reopened.
+ *
+ * Usage: java SorryGood recover games.wal [bot,bot,bot,bot]   (default greedy)
+ */
+public class MoveLog implements AutoCloseable {
+
+    static final byte[] MAGIC = {'S', 'W', 'A', 'L'};
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int FRAME_HEADER_BYTES = 8;
+    static final int BUFFER_BYTES = 1 << 20;
+    static final int MAX_RECORD_BYTES = 1 + 10 + GameSnapshot.BYTES;
+    static final int CHECKPOINT_EVERY = 64; // decisions between a game's checkpoints
+
+    static final int MOVE = 0;
+    static final int CHECKPOINT = 1;
+    static final int END = 2;
+
+    FileChannel channel;
+    long position;       // end of the last complete frame
+    long nextGame = 0;   // guarded by this: above every game number in the file
+
+    // Guarded by this: callers fill pending while the writer drains writing
+    ByteBuffer pending = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer writing = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    long appended = 0;   // records handed to the log
+    long durable = 0;    // records written and forced
+    boolean closed = false;
+    IOException failure;
+
+    Thread writer;
+    // Writer thread only
+    CRC32C crc = new CRC32C();
+    ByteBuffer frameHeader = ByteBuffer.allocateDirect(FRAME_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer[] frame = {frameHeader, null};
+
+    MoveLog(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC).putInt(VERSION).flip();
+            GameArchive.writeFully(channel, header, 0);
+            position = HEADER_BYTES;
+        } else {
+            position = scan(channel, (type, game, in) -> nextGame = Math.max(nextGame, game + 1));
+            channel.truncate(position); // drop a torn last frame
+        }
+        writer = new Thread(this::run, "move-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // First of count new game numbers, unused in this file
+    synchronized long reserveGames(long count) {
+        long first = nextGame;
+        nextGame += count;
+        return first;
+    }
+
+    // ===== Appending =====
+    // Each returns the record's sequence number for sync(); none of them waits for the disk.
+    // Once the writer has failed they throw UncheckedIOException, as sync() throws IOException.
+    synchronized long move(long game, int choice) {
+        waitForRoom();
+        pending.put((byte) MOVE);
+        GameRecord.putVarint(pending, game);
+        GameRecord.putVarint(pending, choice);
+        return added();
+    }
+
+    // Call between decisions (GameSnapshot restores the point mid-turn too)
+    synchronized long checkpoint(long game, GameEngine engine) {
+        GameSnapshot.checkWritable(engine); // before the type byte, so a refused game leaves no half record
+        waitForRoom();
+        pending.put((byte) CHECKPOINT);
+        GameRecord.putVarint(pending, game);
+        GameSnapshot.write(engine, pending);
+        return added();
+    }
+
+    // The game is over: recovery can forget it
+    synchronized long end(long game) {
+        waitForRoom();
+        pending.put((byte) END);
+        GameRecord.putVarint(pending, game);
+        return added();
+    }
+
+    // Only blocks while the writer is a whole buffer behind
+    void waitForRoom() {
+        while (pending.remaining() < MAX_RECORD_BYTES && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException interrupted = new InterruptedIOException("Interrupted while logging");
+                interrupted.initCause(e);
+                throw new UncheckedIOException(interrupted);
+            }
+        }
+        if (failure != null) throw new UncheckedIOException("Move log write failed", failure);
+        if (closed) throw new IllegalStateException("Move log is closed");
+    }
+
+    long added() {
+        notifyAll(); // wakes the writer
+        return ++appended;
+    }
+
+    // Waits until record seq (and so every record before it) is on disk
+    synchronized void sync(long seq) throws IOException {
+        while (durable < seq && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for the move log", e);
+            }
+        }
+        if (failure != null) throw new IOException("Move log write failed", failure);
+    }
+
+    // ===== Writer thread =====
+    void run() {
+        while (true) {
+            long batch;
+            synchronized (this) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // Nothing will be written from now on: callers must fail, not wait for durable
+                        failure = new IOException("Move log writer interrupted", e);
+                        notifyAll();
+                        return;
+                    }
+                }
+                if (pending.position() == 0) return; // closed and drained
+                ByteBuffer full = pending;
+                pending = writing;
+                writing = full;
+                batch = appended;
+                notifyAll(); // callers blocked on a full buffer can go on
+            }
+            try {
+                writeFrame(writing);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+            synchronized (this) {
+                durable = batch;
+                notifyAll();
+            }
+        }
+    }
+
+    // Header and records go out in one gathering write, then one fsync for the whole batch
+    void writeFrame(ByteBuffer records) throws IOException {
+        records.flip();
+        crc.reset();
+        crc.update(records.duplicate());
+        frameHeader.clear();
+        frameHeader.putInt(records.remaining()).putInt((int) crc.getValue()).flip();
+        frame[1] = records;
+        channel.position(position);
+        while (records.hasRemaining()) position += channel.write(frame);
+        channel.force(false);
+        records.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) throw new IOException("Move log write failed", failure);
+    }
+
+    // ===== Reading =====
+    interface Visitor {
+        void record(int type, long game, ByteBuffer in); // in is positioned at the record's payload
+    }
+
+    // Visits every record of every complete frame; returns where the complete frames end
+    static long scan(FileChannel channel, Visitor visitor) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        GameArchive.readFully(channel, header, 0);
+        header.flip();
+        for (byte b : MAGIC) {
+            if (header.get() != b) throw new IOException("Not a move log (bad magic)");
+        }
+        if (header.getInt() != VERSION) throw new IOException("Unsupported move log version");
+
+        long size = channel.size();
+        long at = HEADER_BYTES;
+        ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer frame = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        while (at + FRAME_HEADER_BYTES <= size) {
+            frameHeader.clear();
+            GameArchive.readFully(channel, frameHeader, at);
+            int length = frameHeader.getInt(0);
+            int checksum = frameHeader.getInt(4);
+            if (length <= 0 || length > BUFFER_BYTES || at + FRAME_HEADER_BYTES + length > size) break;
+            frame.clear().limit(length);
+            GameArchive.readFully(channel, frame, at + FRAME_HEADER_BYTES);
+            frame.flip();
+            crc.reset();
+            crc.update(frame.duplicate());
+            if ((int) crc.getValue() != checksum) break;
+            if (visitor != null) {
+                while (frame.hasRemaining()) {
+                    int type = frame.get();
+                    long game = GameRecord.getVarint(frame);
+                    int start = frame.position();
+                    visitor.record(type, game, frame);
+                    frame.position(start + payloadBytes(type, frame, start));
+                }
+            }
+            at += FRAME_HEADER_BYTES + length;
+        }
+        return at;
+    }
+
+    static int payloadBytes(int type, ByteBuffer frame, int start) {
+        if (type == CHECKPOINT) return GameSnapshot.BYTES;
+        if (type == END) return 0;
+        int n = 1;
+        while (frame.get(start + n - 1) < 0) n++; // varint choice
+        return n;
+    }
+
+    // ===== Recovery =====
+    // A game's last checkpoint and the decisions logged after it
+    static class Tail {
+        byte[] checkpoint;
+        int[] choices = new int[CHECKPOINT_EVERY];
+        int count = 0;
+    }
+
+    // Every unfinished game in the log, restored to just after its last logged decision
+    static Map<Long, GameEngine> recover(Path file) throws IOException {
+        Map<Long, Tail> tails = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(file)) {
+            scan(channel, (type, game, in) -> {
+                if (type == END) {
+                    tails.remove(game);
+                    return;
+                }
+                Tail tail = tails.computeIfAbsent(game, g -> new Tail());
+                if (type == CHECKPOINT) {
+                    if (tail.checkpoint == null) tail.checkpoint = new byte[GameSnapshot.BYTES];
+                    in.duplicate().get(tail.checkpoint);
+                    tail.count = 0;
+                } else {
+                    if (tail.count == tail.choices.length) {
+                        int[] bigger = new int[tail.count * 2];
+                        System.arraycopy(tail.choices, 0, bigger, 0, tail.count);
+                        tail.choices = bigger;
+                    }
+                    tail.choices[tail.count++] = (int) GameRecord.getVarint(in.duplicate());
+                }
+            });
+        }
+
+        Map<Long, GameEngine> games = new HashMap<>();
+        MoveBuffer moves = new MoveBuffer();
+        for (Map.Entry<Long, Tail> entry : tails.entrySet()) {
+            Tail tail = entry.getValue();
+            if (tail.checkpoint == null) continue; // never reached its first checkpoint: nothing to resume from
+            GameEngine game = new GameEngine(0);
+            GameSnapshot.read(game, ByteBuffer.wrap(tail.checkpoint).order(ByteOrder.LITTLE_ENDIAN));
+            for (int i = 0; i < tail.count; i++) {
+                game.prepareDecision(moves);
+                if (tail.choices[i] >= moves.size()) {
+                    throw new IOException("Game " + entry.getKey() + " diverged from its move log");
+                }
+                game.applyDecision(moves.get(tail.choices[i]));
+            }
+            games.put(entry.getKey(), game);
+        }
+        return games;
+    }
+
+    // args: file [bot,bot,bot,bot]
+    // Recovers the unfinished games and plays each to the end under its own number, so the log
+    // records them as finished and a second recover finds nothing left to do
+    public static void main(String[] args) throws Exception {
+        Path file = Path.of(args[0]);
+        String[] botNames = {"greedy", "greedy", "greedy", "greedy"};
+        if (args.length > 1) {
+            String[] given = args[1].split(",");
+            for (int p = 0; p < GameEngine.PLAYERS; p++) botNames[p] = given[Math.min(p, given.length - 1)];
+        }
+        long start = System.nanoTime();
+        Map<Long, GameEngine> games = recover(file);
+        long nanos = System.nanoTime() - start;
+        System.out.println("Recovered " + games.size() + " unfinished game(s) in " + String.format("%.1f", nanos / 1e6) + " ms");
+        if (games.isEmpty()) return;
+
+        Bot[] bots = new Bot[GameEngine.PLAYERS];
+        for (int p = 0; p < GameEngine.PLAYERS; p++) bots[p] = Simulator.createBot(botNames[p]);
+        MoveBuffer moves = new MoveBuffer();
+        int shown = 0;
+        try (MoveLog log = new MoveLog(file)) {
+            for (Map.Entry<Long, GameEngine> e : new TreeMap<>(games).entrySet()) {
+                GameEngine game = e.getValue();
+                int turn = game.turns;
+                int toPlay = game.currentPlayer;
+                Simulator.playGame(game, bots, moves, new SplittableRandom(e.getKey() ^ Simulator.BOT_SALT), null, log, e.getKey());
+                if (shown++ < 10) {
+                    System.out.println("  game " + e.getKey() + ": resumed at turn " + turn + " (" + SorryGood.PLAYER_COLORS[toPlay]
+                            + " to play), " + (game.winner == -1 ? "unfinished" : SorryGood.PLAYER_COLORS[game.winner] + " won")
+                            + " at turn " + game.turns);
+                }
+            }
+        }
+        System.out.println("Finished " + games.size() + " game(s) with " + String.join(",", botNames) + "; logged to " + file);
+    }
+}
@@ -0,0 +1,165 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * MoveLog checks: java MoveLogTest (see Checks).
+ * Logs games to a temporary file, recovers them after clean and torn endings, and checks a
+ * writer that stops early fails its callers instead of leaving them waiting.
+ */
+public class MoveLogTest extends Checks {
+
+    static MoveBuffer moves = new MoveBuffer();
+    static Bot[] bots = {new RandomBot(), new RandomBot(), new RandomBot(), new RandomBot()};
+
+    // Plays up to decisions more decisions of game, logging them like Simulator.playGame but without END
+    static void playLogged(GameEngine game, MoveLog log, long id, int decisions, SplittableRandom rnd, int[] sinceCheckpoint) {
+        for (int i = 0; i < decisions && !game.isOver(); i++) {
+            int card = game.prepareDecision(moves);
+            int choice = bots[game.currentPlayer].chooseMove(game, card, moves, rnd);
+            log.move(id, choice);
+            game.applyDecision(moves.get(choice));
+            if (++sinceCheckpoint[0] == MoveLog.CHECKPOINT_EVERY) {
+                log.checkpoint(id, game);
+                sinceCheckpoint[0] = 0;
+            }
+        }
+    }
+
+    static boolean sameGame(GameEngine a, GameEngine b) {
+        return a.hash == b.hash && a.turns == b.turns && a.currentPlayer == b.currentPlayer
+                && a.winner == b.winner && a.deck.drawn == b.deck.drawn && a.rng.state == b.rng.state;
+    }
+
+    static GameEngine copy(GameEngine game) {
+        GameEngine copy = new GameEngine(0);
+        copy.copyFrom(game);
+        copy.rng.state = game.rng.state;
+        return copy;
+    }
+
+    static void recovery(Path file) throws Exception {
+        // Game 0 finishes; game 1 stops before its second checkpoint; game 2 runs past a few checkpoints
+        int[] stopAfter = {Integer.MAX_VALUE, 40, 3 * MoveLog.CHECKPOINT_EVERY + 17};
+        GameEngine[] games = new GameEngine[stopAfter.length];
+        SplittableRandom[] rnds = new SplittableRandom[stopAfter.length];
+        int[][] since = new int[stopAfter.length][1];
+        try (MoveLog log = new MoveLog(file)) {
+            long first = log.reserveGames(stopAfter.length);
+            check(first == 0, "a new log numbers games from 0, got " + first);
+            for (int g = 0; g < stopAfter.length; g++) {
+                games[g] = new GameEngine(100 + g);
+                games[g].initializeGame();
+                rnds[g] = new SplittableRandom(g);
+                log.checkpoint(g, games[g]);
+                playLogged(games[g], log, g, stopAfter[g], rnds[g], since[g]);
+            }
+            log.sync(log.end(0));
+            check(games[0].isOver(), "game 0 played to the end");
+        }
+
+        Map<Long, GameEngine> recovered = MoveLog.recover(file);
+        check(!recovered.containsKey(0L), "finished game is not recovered");
+        for (long g = 1; g < stopAfter.length; g++) {
+            GameEngine back = recovered.get(g);
+            check(back != null && sameGame(back, games[(int) g]), "game " + g + " recovers to its last logged decision");
+        }
+
+        // A second session appends one more frame for game 2; then a crash tears that frame
+        long cleanSize = Files.size(file);
+        GameEngine before = copy(games[2]);
+        try (MoveLog log = new MoveLog(file)) {
+            check(log.reserveGames(1) == stopAfter.length, "reopened log numbers games above the old ones");
+            synchronized (log) { // holds the writer off, so the five moves go out as one frame
+                playLogged(games[2], log, 2, 5, rnds[2], since[2]);
+            }
+            log.sync(log.appended);
+        }
+        check(Files.size(file) > cleanSize, "second session wrote a frame");
+        GameEngine back = MoveLog.recover(file).get(2L);
+        check(back != null && sameGame(back, games[2]), "game 2 recovers the second session's moves");
+
+        for (long cut : new long[] {Files.size(file) - 1, cleanSize + MoveLog.FRAME_HEADER_BYTES - 2, cleanSize + MoveLog.FRAME_HEADER_BYTES + 1}) {
+            Path torn = file.resolveSibling("torn.wal");
+            Files.copy(file, torn, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel channel = FileChannel.open(torn, StandardOpenOption.WRITE)) {
+                channel.truncate(cut);
+            }
+            back = MoveLog.recover(torn).get(2L);
+            check(back != null && sameGame(back, before), "torn at " + cut + ": game 2 recovers to before the torn frame");
+            try (MoveLog log = new MoveLog(torn)) {
+                check(log.position == cleanSize, "torn at " + cut + ": reopening cuts back to " + log.position);
+            }
+            check(Files.size(torn) == cleanSize, "torn at " + cut + ": file cut to the last complete frame");
+            Files.delete(torn);
+        }
+
+        // A flipped payload byte fails the CRC: that frame and everything after it are dropped
+        Path corrupt = file.resolveSibling("corrupt.wal");
+        Files.copy(file, corrupt);
+        try (FileChannel channel = FileChannel.open(corrupt, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            long at = cleanSize + MoveLog.FRAME_HEADER_BYTES;
+            channel.read(b, at);
+            b.put(0, (byte) (b.get(0) ^ 0x40)).position(0);
+            channel.write(b, at);
+            check(MoveLog.scan(channel, null) == cleanSize, "bad CRC ends the log at the frame before");
+        }
+        back = MoveLog.recover(corrupt).get(2L);
+        check(back != null && sameGame(back, before), "bad CRC: game 2 recovers to before that frame");
+        Files.delete(corrupt);
+    }
+
+    // An interrupted writer thread fails waiting callers instead of leaving them blocked
+    static void interruptedWriter(Path file) throws Exception {
+        MoveLog log = new MoveLog(file);
+        log.writer.interrupt();
+        log.writer.join(2000);
+        check(!log.writer.isAlive(), "interrupted writer stops");
+
+        IOException[] thrown = new IOException[1];
+        Thread waiter = new Thread(() -> {
+            try {
+                log.sync(log.appended + 1);
+            } catch (IOException e) {
+                thrown[0] = e;
+            }
+        });
+        waiter.setDaemon(true);
+        waiter.start();
+        waiter.join(2000);
+        check(!waiter.isAlive() && thrown[0] != null, "sync() fails once the writer is gone");
+        try {
+            log.move(0, 0);
+            check(false, "move() fails once the writer is gone");
+        } catch (UncheckedIOException expected) {
+        }
+        try {
+            log.close();
+            check(false, "close() reports the writer's failure");
+        } catch (IOException expected) {
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("movelog-test");
+        Path file = dir.resolve("games.wal");
+        Path other = dir.resolve("interrupted.wal");
+        try {
+            recovery(file);
+            interruptedWriter(other);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(other);
+            Files.delete(dir);
+        }
+        finish("move log");
+    }
+}
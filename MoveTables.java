@@ -0,0 +1,62 @@
+/**
+ * Move results precomputed once at class load, so resolving a move is a couple of array loads.
+ *
+ * Flat tables indexed by (player, position, signed distance), see index():
+ *   LAND   - square after home-stretch entry / wraparound, before any slide (or a GameEngine error code)
+ *   FINAL  - square after the slide, if LAND is another color's slide start
+ *   SWEPT  - bit per main-track square bumped by that slide (0 if no slide)
+ *
+ * SLIDE_END is indexed by player * BOARD_SIZE + square.
+ */
+public class MoveTables {
+
+    static final int PLAYERS = GameEngine.PLAYERS;
+    static final int BOARD_SIZE = GameEngine.BOARD_SIZE;
+
+    static final int POSITIONS = GameEngine.HOME_POS + 2; // -1..65
+    static final int MIN_DIST = -4;                       // card 4
+    static final int MAX_DIST = 12;                       // card 12
+    static final int DISTANCES = MAX_DIST - MIN_DIST + 1;
+
+    static final int[] LAND = new int[PLAYERS * POSITIONS * DISTANCES];
+    static final int[] FINAL = new int[PLAYERS * POSITIONS * DISTANCES];
+    static final long[] SWEPT = new long[PLAYERS * POSITIONS * DISTANCES];
+    static final int[] SLIDE_END = new int[PLAYERS * BOARD_SIZE];
+
+    static {
+        for (int player = 0; player < PLAYERS; player++) {
+            for (int pos = 0; pos < BOARD_SIZE; pos++) {
+                SLIDE_END[player * BOARD_SIZE + pos] = GameEngine.slideEnd(player, pos);
+            }
+        }
+
+        for (int player = 0; player < PLAYERS; player++) {
+            for (int pos = GameEngine.START; pos <= GameEngine.HOME_POS; pos++) {
+                for (int dist = MIN_DIST; dist <= MAX_DIST; dist++) {
+                    int i = index(player, pos, dist);
+                    int land = GameEngine.destination(player, pos, dist, true);
+                    LAND[i] = land;
+                    FINAL[i] = land;
+                    if (!GameEngine.onTrack(land)) continue;
+
+                    int end = SLIDE_END[player * BOARD_SIZE + land];
+                    if (end == -1) continue;
+                    FINAL[i] = end;
+                    long mask = 0;
+                    for (int step = 1; step <= GameEngine.SLIDE_LEN; step++) {
+                        mask |= 1L << ((land + step) % BOARD_SIZE);
+                    }
+                    SWEPT[i] = mask;
+                }
+            }
+        }
+    }
+
+    static int index(int player, int pos, int dist) {
+        return (player * POSITIONS + pos + 1) * DISTANCES + dist - MIN_DIST;
+    }
+
+    static boolean inRange(int dist) { return dist >= MIN_DIST && dist <= MAX_DIST; }
+
+    static int slideEnd(int player, int pos) { return SLIDE_END[player * BOARD_SIZE + pos]; }
+}
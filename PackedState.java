@@ -0,0 +1,154 @@
+/**
+ * Bit-packed copy of a GameEngine position for search and simulation code.
+ * - 16 pawns x 7 bits in two longs: players 0-1 in lo, players 2-3 in hi.
+ *   Each field holds position + 1, so Start (-1) is 0 and Home (65) is 66.
+ * - meta: saved Sorry! counts (8 bits per player), current player (2 bits), deck index (6 bits).
+ *
+ * Copy, equals and hashCode never allocate. Search makes moves in place on the engine and
+ * takes them back with capture()/restore() (GreedyBot, and ExpectimaxBot with one PackedState
+ * per depth), so the rules are never duplicated here. restore() is the cheap unmake: it diffs
+ * the packed fields against the engine and touches only the pawns, occupancy squares, counts
+ * and hash keys that changed, so undoing one move costs a few XORs rather than a rebuild.
+ */
+public class PackedState {
+
+    static final int BITS = 7;
+    static final long MASK = (1L << BITS) - 1;
+    static final int PAWNS_PER_WORD = 8; // 2 players * 4 pawns
+
+    static final int SAVED_BITS = 8;
+    static final int PLAYER_SHIFT = 32;
+    static final int DECK_SHIFT = 34;
+
+    long lo;
+    long hi;
+    long meta;
+
+    // ===== Pawn fields =====
+    int get(int player, int pawn) {
+        int index = player * GameEngine.PAWNS_PER_PLAYER + pawn;
+        long word = index < PAWNS_PER_WORD ? lo : hi;
+        int shift = (index % PAWNS_PER_WORD) * BITS;
+        return (int) ((word >>> shift) & MASK) - 1;
+    }
+
+    void set(int player, int pawn, int pos) {
+        int index = player * GameEngine.PAWNS_PER_PLAYER + pawn;
+        int shift = (index % PAWNS_PER_WORD) * BITS;
+        long field = (long) (pos + 1) << shift;
+        if (index < PAWNS_PER_WORD) lo = (lo & ~(MASK << shift)) | field;
+        else hi = (hi & ~(MASK << shift)) | field;
+    }
+
+    // ===== Meta fields =====
+    int savedSorryCards(int player) {
+        return (int) ((meta >>> (player * SAVED_BITS)) & 0xFF);
+    }
+
+    void setSavedSorryCards(int player, int count) {
+        int shift = player * SAVED_BITS;
+        meta = (meta & ~(0xFFL << shift)) | ((long) Math.min(count, 0xFF) << shift);
+    }
+
+    int currentPlayer() { return (int) ((meta >>> PLAYER_SHIFT) & 0x3); }
+
+    void setCurrentPlayer(int player) {
+        meta = (meta & ~(0x3L << PLAYER_SHIFT)) | ((long) player << PLAYER_SHIFT);
+    }
+
+    int deckIndex() { return (int) ((meta >>> DECK_SHIFT) & 0x3F); }
+
+    void setDeckIndex(int index) {
+        meta = (meta & ~(0x3FL << DECK_SHIFT)) | ((long) index << DECK_SHIFT);
+    }
+
+    // ===== Engine conversion =====
+    // The deck order itself is not packed: restore() only puts back the cards drawn since
+    // capture(), so it is exact as long as the engine hasn't reshuffled in between.
+    void capture(GameEngine game) {
+        lo = 0;
+        hi = 0;
+        meta = 0;
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            for (int pawn = 0; pawn < GameEngine.PAWNS_PER_PLAYER; pawn++) {
+                set(p, pawn, game.pawnPositions[p][pawn]);
+            }
+            setSavedSorryCards(p, game.savedSorryCards[p]);
+        }
+        setCurrentPlayer(game.currentPlayer);
+        setDeckIndex(game.deck.drawn);
+    }
+
+    // Only what differs is written, XORing the engine's hash as it goes: moved pawns leave
+    // their old squares in the occupancy index before any takes its new one (a swap trades
+    // two squares), and the cards drawn since capture() go back one count at a time.
+    void restore(GameEngine game) {
+        int moved = 0; // bit per pawn id
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            for (int pawn = 0; pawn < GameEngine.PAWNS_PER_PLAYER; pawn++) {
+                int pos = get(p, pawn);
+                int old = game.pawnPositions[p][pawn];
+                if (pos != old) {
+                    int id = p * GameEngine.PAWNS_PER_PLAYER + pawn;
+                    if (GameEngine.onTrack(old) && game.occupant[old] == id) game.occupant[old] = GameEngine.EMPTY;
+                    game.hash ^= Zobrist.pawn(p, pawn, old) ^ Zobrist.pawn(p, pawn, pos);
+                    game.pawnPositions[p][pawn] = pos;
+                    moved |= 1 << id;
+                }
+            }
+            if (savedSorryCards(p) != game.savedSorryCards[p]) game.setSavedSorryCards(p, savedSorryCards(p));
+        }
+        for (; moved != 0; moved &= moved - 1) {
+            int id = Integer.numberOfTrailingZeros(moved);
+            int pos = game.pawnPositions[id / GameEngine.PAWNS_PER_PLAYER][id % GameEngine.PAWNS_PER_PLAYER];
+            if (GameEngine.onTrack(pos)) game.occupant[pos] = id;
+        }
+        if (currentPlayer() != game.currentPlayer) game.setCurrentPlayer(currentPlayer());
+
+        Deck deck = game.deck;
+        int drawn = deckIndex();
+        if (deck.drawn > drawn) {
+            for (int i = drawn; i < deck.drawn; i++) {
+                int t = GameEngine.CARD_INDEX[deck.cards[i]];
+                game.hash ^= Zobrist.deck(t, deck.left[t]) ^ Zobrist.deck(t, deck.left[t] + 1);
+                deck.left[t]++;
+            }
+            deck.drawn = drawn;
+        } else if (deck.drawn < drawn) {
+            // Reshuffled since capture(): recount, and swap the deck's keys in the hash
+            for (int t = 0; t < Deck.TYPES; t++) game.hash ^= Zobrist.deck(t, deck.left[t]);
+            deck.rewind(drawn);
+            for (int t = 0; t < Deck.TYPES; t++) game.hash ^= Zobrist.deck(t, deck.left[t]);
+        }
+    }
+
+    // ===== Copy / compare =====
+    void copyFrom(PackedState other) {
+        lo = other.lo;
+        hi = other.hi;
+        meta = other.meta;
+    }
+
+    boolean sameAs(PackedState other) {
+        return lo == other.lo && hi == other.hi && meta == other.meta;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PackedState && sameAs((PackedState) o);
+    }
+
+    // 64-bit mix of the three words (splitmix64 finalizer)
+    long hash64() {
+        long h = lo * 0x9E3779B97F4A7C15L;
+        h = (h ^ hi) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ meta) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    @Override
+    public int hashCode() {
+        long h = hash64();
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Answers the questions SorryGood asks while a card is played, so the same turn flow
+ * can be driven by a person at the console, a scripted replay, or a bot.
+ *
+ * Answers use the console menus' numbering for actions (1 / 2, or 1 = use / 0 = keep for a
+ * saved Sorry!) and 0-based indexes for pawns and targets. Anything out of range is treated
+ * like a bad keyboard entry ("Invalid selection!").
+ */
+public interface PlayerController {
+
+    // Called once a card is drawn (or with GameEngine.SAVED_SORRY_CARD before the saved Sorry! question)
+    default void startTurn(GameEngine game, int player, int card) {}
+
+    int chooseAction(GameEngine game, int player, int card);
+
+    int choosePawn(GameEngine game, int player);
+
+    // Spaces for the first pawn of a 7 split (1-6)
+    int chooseSplit(GameEngine game, int player);
+
+    // Index into the tCount targets (opponent pawns on the main track, by player then pawn)
+    int chooseTarget(GameEngine game, int player, int[] tPlayer, int[] tPawn, int tCount);
+}
@@ -0,0 +1,12 @@
+import java.util.SplittableRandom;
+
+/**
+ * Picks any legal move with equal odds. Baseline for strategy comparisons.
+ */
+public class RandomBot implements Bot {
+
+    @Override
+    public int chooseMove(GameEngine game, int card, MoveBuffer moves, SplittableRandom rnd) {
+        return rnd.nextInt(moves.size());
+    }
+}
@@ -0,0 +1,155 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.SplittableRandom;
+
+/**
+ * GameRecord encoding and replay checks: java RecordTest (see Checks).
+ */
+public class RecordTest extends Checks {
+
+    static final long RUN_SEED = 2024;
+
+    static ByteBuffer buffer(int bytes) {
+        return ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Lengths at the 7-bit boundaries, and negative values as 64-bit unsigned (ten bytes)
+    static void varints() {
+        long[] values = {0, 1, 127, 128, 16383, 16384, (1L << 56) - 1, 1L << 56, Long.MAX_VALUE, -1, -128, Long.MIN_VALUE};
+        int[] lengths = {1, 1, 1, 2, 2, 3, 8, 9, 9, 10, 10, 10};
+        ByteBuffer out = buffer(16);
+        for (int i = 0; i < values.length; i++) {
+            out.clear();
+            GameRecord.putVarint(out, values[i]);
+            check(out.position() == lengths[i], "varint " + values[i] + " takes " + out.position() + " bytes");
+            out.flip();
+            long back = GameRecord.getVarint(out);
+            check(back == values[i], "varint " + values[i] + " reads back as " + back);
+            check(!out.hasRemaining(), "varint " + values[i] + " reads all its bytes");
+        }
+    }
+
+    // Choices either side of the escape nibble and of the escape varint's one-byte limit
+    static void choiceEscapes() {
+        int[] choices = {0, 14, 15, 16, 15 + 127, 15 + 128, 15 + 16383, 15 + 16384};
+        GameRecord record = new GameRecord();
+        record.start(7, 0x1234_5678_9ABCL); // not derived from the run seed, so it is stored
+        for (int i = 0; i < choices.length; i++) {
+            record.add(GameEngine.CARD_TYPES[i % GameEngine.CARD_TYPES.length], choices[i]);
+        }
+        record.add(GameEngine.SAVED_SORRY_CARD, 1);
+        record.winner = 3;
+
+        ByteBuffer out = buffer(record.maxEncodedSize());
+        record.encode(out, RUN_SEED);
+        out.flip();
+        GameRecord back = new GameRecord();
+        back.decode(out, RUN_SEED, 7);
+        check(!out.hasRemaining(), "escaped record reads all its bytes");
+        check(sameRecord(record, back), "escaped choices round-trip");
+    }
+
+    static boolean sameRecord(GameRecord a, GameRecord b) {
+        if (a.gameNumber != b.gameNumber || a.seed != b.seed || a.winner != b.winner || a.count != b.count) return false;
+        for (int i = 0; i < a.count; i++) {
+            if (a.cards[i] != b.cards[i] || a.choices[i] != b.choices[i]) return false;
+        }
+        return true;
+    }
+
+    // Seeded games through GameRecordWriter and GameRecordReader, each replayed to the same end
+    static void seededGames() throws Exception {
+        int games = 12;
+        GameEngine game = new GameEngine(RUN_SEED);
+        MoveBuffer moves = new MoveBuffer();
+        Bot[] random = {new RandomBot(), new RandomBot(), new RandomBot(), new RandomBot()};
+
+        GameRecord[] played = new GameRecord[games];
+        long[] endHash = new long[games];
+        int[] endTurns = new int[games];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(bytes);
+        GameRecordWriter.writeHeader(channel, RUN_SEED);
+        GameRecordWriter writer = new GameRecordWriter(channel, RUN_SEED);
+        for (int g = 0; g < games; g++) {
+            // Games 0-5 and 8-11 are consecutive (two blocks); 6 and 7 use their own seeds
+            long number = g < 8 ? g : g + 100;
+            long seed = g == 6 || g == 7 ? -1L - g : GameRandom.seedFor(RUN_SEED, number);
+            played[g] = new GameRecord();
+            played[g].start(number, seed);
+            game.initializeGame(seed);
+            Simulator.playGame(game, random, moves, new SplittableRandom(seed), played[g]);
+            endHash[g] = game.hash;
+            endTurns[g] = game.turns;
+            writer.write(played[g]);
+        }
+        writer.flush();
+        check(writer.gamesWritten == games, "writer counted " + writer.gamesWritten + " games");
+
+        int longest = 0;
+        for (int g = 0; g < games; g++) longest = Math.max(longest, played[g].count);
+        check(longest > 256, "a game outgrew GameRecord's first arrays (" + longest + " decisions)");
+
+        GameRecordReader reader = new GameRecordReader(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+        check(reader.runSeed == RUN_SEED, "reader run seed " + reader.runSeed);
+        GameRecord record = new GameRecord();
+        int read = 0;
+        while (reader.next(record)) {
+            int g = read++;
+            if (g >= games) break;
+            check(sameRecord(played[g], record), "game " + g + " decodes as written");
+            try {
+                record.replay(game, moves);
+                check(game.turns == endTurns[g] && game.hash == endHash[g] && game.winner == played[g].winner,
+                        "game " + g + " replays to the same end");
+                check(record.events == played[g].events, "game " + g + " replays the same events");
+            } catch (IllegalStateException e) {
+                check(false, e.getMessage());
+            }
+        }
+        check(read == games, "read " + read + " of " + games + " games");
+    }
+
+    // The longest game a block holds round-trips through the file; one decision more is refused
+    static void longestGame() throws Exception {
+        GameRecord record = new GameRecord();
+        record.start(0, GameRandom.seedFor(RUN_SEED, 0));
+        int limit = GameRecordWriter.BUFFER_BYTES - GameRecordWriter.BLOCK_HEADER_MAX;
+        for (int i = 0; record.maxEncodedSize() + 6 <= limit; i++) {
+            // Every other choice escapes, at the varint's one- and two-byte sizes
+            record.add(GameEngine.CARD_TYPES[i % GameEngine.CARD_TYPES.length], i % 2 == 0 ? i % 15 : 15 + i % 300);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(bytes);
+        GameRecordWriter.writeHeader(channel, RUN_SEED);
+        GameRecordWriter writer = new GameRecordWriter(channel, RUN_SEED);
+        writer.write(record);
+        writer.flush();
+        check(writer.gamesWritten == 1, "longest game that fits is written");
+
+        GameRecordReader reader = new GameRecordReader(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+        GameRecord back = new GameRecord();
+        check(reader.next(back) && sameRecord(record, back), "longest game (" + record.count + " decisions) reads back");
+        check(!reader.next(back), "nothing after the longest game");
+
+        record.add(1, 0);
+        try {
+            writer.write(record);
+            check(false, "too long a game is refused");
+        } catch (IllegalArgumentException expected) {
+        }
+        check(writer.games == 0, "refused game left the block empty");
+    }
+
+    public static void main(String[] args) throws Exception {
+        varints();
+        choiceEscapes();
+        seededGames();
+        longestGame();
+        finish("record");
+    }
+}
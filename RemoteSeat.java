@@ -0,0 +1,72 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.SplittableRandom;
+
+/**
+ * A human seat at a GameServer table, played over that player's connection.
+ * - chooseMove() lists the moves and blocks reading the answer. It runs on a virtual thread,
+ *   so a player taking minutes to answer ties up no OS thread.
+ * - Narrates the table's GameEvents to the player as EVENT lines.
+ * - If the connection drops, a GreedyBot takes the seat over so the rest of the table can finish.
+ */
+public class RemoteSeat implements Bot, GameEvents.Listener {
+
+    BufferedReader in;
+    PrintWriter out;
+    volatile boolean connected = true;
+    Bot fallback = new GreedyBot();
+
+    RemoteSeat(BufferedReader in, PrintWriter out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    void send(String line) {
+        if (!connected) return;
+        out.println(line);
+        if (out.checkError()) connected = false;
+    }
+
+    void flush() {
+        if (connected) out.flush();
+    }
+
+    // CHOOSE <card> <count>, then one "<index> <move>" line per move; the client answers with an index
+    @Override
+    public int chooseMove(GameEngine game, int card, MoveBuffer moves, SplittableRandom rnd) {
+        if (moves.size() == 1 && Move.kind(moves.get(0)) == Move.PASS && card != GameEngine.SAVED_SORRY_CARD) {
+            send("PASS no legal move");
+            return 0;
+        }
+        send("CHOOSE " + (card == GameEngine.SAVED_SORRY_CARD ? "saved-sorry" : SorryGood.getCardName(card)) + " " + moves.size());
+        for (int i = 0; i < moves.size(); i++) send(i + " " + Move.describe(moves.get(i)));
+        flush();
+        while (connected) {
+            String line;
+            try {
+                line = in.readLine();
+            } catch (IOException e) {
+                line = null;
+            }
+            if (line == null) {
+                connected = false;
+                break;
+            }
+            try {
+                int choice = Integer.parseInt(line.trim());
+                if (choice >= 0 && choice < moves.size()) return choice;
+            } catch (NumberFormatException e) {
+                // fall through to the error below
+            }
+            send("ERROR answer 0-" + (moves.size() - 1));
+            flush();
+        }
+        return fallback.chooseMove(game, card, moves, rnd);
+    }
+
+    @Override
+    public void onEvent(int event) {
+        send("EVENT " + GameEvents.describe(event));
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Rule checks: java RulesTest (see Checks).
+ */
+public class RulesTest extends Checks {
+
+    // A pawn standing on its own home entry square steps straight into the home stretch
+    static void homeEntry() {
+        int stretch = GameEngine.BOARD_SIZE;
+        for (int player = 0; player < GameEngine.PLAYERS; player++) {
+            int entry = GameEngine.HOME_ENTRY_POSITIONS[player];
+            for (int spaces = 1; spaces < GameEngine.HOME_STRETCH_SIZE; spaces++) {
+                int land = GameEngine.destination(player, entry, spaces, true);
+                check(land == stretch + spaces - 1, "player " + player + " from entry +" + spaces + " -> " + land);
+                check(MoveTables.LAND[MoveTables.index(player, entry, spaces)] == land, "MoveTables agrees, player " + player + " +" + spaces);
+            }
+            check(GameEngine.destination(player, entry, GameEngine.HOME_STRETCH_SIZE, true) == GameEngine.HOME_POS,
+                    "player " + player + " from entry +5 reaches Home");
+
+            // Landing exactly on the entry square stays on the track
+            int before = (entry - 1 + GameEngine.BOARD_SIZE) % GameEngine.BOARD_SIZE;
+            check(GameEngine.destination(player, before, 1, true) == entry, "player " + player + " lands on its entry square");
+            check(GameEngine.destination(player, before, 2, true) == stretch, "player " + player + " passes its entry square");
+
+            // Backward moves never enter the stretch
+            check(GameEngine.destination(player, entry, -4, false) == (entry - 4 + GameEngine.BOARD_SIZE) % GameEngine.BOARD_SIZE,
+                    "player " + player + " backward from entry");
+
+            check(GameEngine.progress(player, before) < GameEngine.progress(player, entry)
+                    && GameEngine.progress(player, entry) < GameEngine.progress(player, stretch),
+                    "player " + player + " progress increases through the entry square");
+        }
+
+        // Through the engine: a 3 from Red's entry square ends on the third stretch square
+        GameEngine game = new GameEngine(1);
+        game.initializeGame(1);
+        int entry = GameEngine.HOME_ENTRY_POSITIONS[0];
+        game.setPosition(0, 0, entry);
+        int result = game.movePawn(0, 0, 3, true);
+        check(result == GameEngine.ENTERED_HOME_STRETCH, "engine move from entry returns ENTERED_HOME_STRETCH, got " + result);
+        check(game.pawnPositions[0][0] == stretch + 2, "engine move from entry lands on " + game.pawnPositions[0][0]);
+    }
+
+    // Undoing every legal move with PackedState.restore leaves the engine exactly as captured
+    static void packedRestore() {
+        SplittableRandom rnd = new SplittableRandom(7);
+        GameEngine game = new GameEngine(7);
+        GameEngine copy = new GameEngine(7);
+        MoveBuffer moves = new MoveBuffer();
+        PackedState before = new PackedState();
+        for (int g = 0; g < 20; g++) {
+            game.initializeGame();
+            while (!game.isOver()) {
+                int card = game.prepareDecision(moves);
+                before.capture(game);
+                copy.copyFrom(game);
+                for (int i = 0; i < moves.size(); i++) {
+                    game.applyMove(game.currentPlayer, moves.get(i));
+                    if (i % 3 == 0) game.drawCard();
+                    before.restore(game);
+                    check(sameState(game, copy), "game " + g + " turn " + game.turns + " card " + card + " move " + i + " restores");
+                }
+                game.applyDecision(moves.get(rnd.nextInt(moves.size())));
+            }
+        }
+    }
+
+    static boolean sameState(GameEngine a, GameEngine b) {
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            if (!Arrays.equals(a.pawnPositions[p], b.pawnPositions[p])) return false;
+        }
+        return Arrays.equals(a.savedSorryCards, b.savedSorryCards)
+                && Arrays.equals(a.occupant, b.occupant)
+                && Arrays.equals(a.deck.left, b.deck.left)
+                && a.deck.drawn == b.deck.drawn
+                && a.currentPlayer == b.currentPlayer
+                && a.hash == b.hash && a.hash == Zobrist.of(a);
+    }
+
+    public static void main(String[] args) {
+        homeEntry();
+        packedRestore();
+        finish("rule");
+    }
+}
@@ -0,0 +1,60 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Replays a game from the numbers a person would have typed, parsed once up front
+ * into an int array, so regression replays run without a Scanner.
+ */
+public class ScriptedController extends IntInputController {
+
+    int[] script;
+    int index = 0;
+
+    ScriptedController(int[] script) { this.script = script; }
+
+    // Whitespace-separated ints; anything after '#' on a line is a comment
+    static int[] parse(String text) {
+        int[] values = new int[16];
+        int count = 0;
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            char ch = text.charAt(i);
+            if (ch == '#') {
+                while (i < n && text.charAt(i) != '\n') i++;
+            } else if (ch == '-' || (ch >= '0' && ch <= '9')) {
+                boolean negative = ch == '-';
+                if (negative) i++;
+                int value = 0;
+                while (i < n && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                    value = value * 10 + (text.charAt(i) - '0');
+                    i++;
+                }
+                if (count == values.length) {
+                    int[] bigger = new int[values.length * 2];
+                    System.arraycopy(values, 0, bigger, 0, count);
+                    values = bigger;
+                }
+                values[count++] = negative ? -value : value;
+            } else {
+                i++;
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(values, 0, result, 0, count);
+        return result;
+    }
+
+    static ScriptedController fromFile(Path file) throws IOException {
+        return new ScriptedController(parse(Files.readString(file)));
+    }
+
+    boolean finished() { return index >= script.length; }
+
+    @Override
+    int nextInt() {
+        if (index >= script.length) throw new IllegalStateException("Script ran out after " + script.length + " answers");
+        return script[index++];
+    }
+}
@@ -0,0 +1,247 @@
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless Monte Carlo runner: plays N complete bot-vs-bot games across all cores
+ * and reports win rate per seat, game length and games per second.
+ *
+ * Usage: java SorryGood simulate [games] [bot,bot,bot,bot] [seed] [--record games.srec] [--archive games.sarc]
+ *        [--wal games.wal]   (write-ahead log of every decision, see MoveLog)
+ *   bots: random | greedy | mcts | mcts:N | expectimax | expectimax:depth   (default: random for every seat)
+ */
+public class Simulator {
+
+    static final int PLAYERS = GameEngine.PLAYERS;
+    static final int LENGTH_BUCKETS = 501; // turns 0..499, last bucket = 500+
+    static final int HISTOGRAM_BIN = 25;
+
+    // Per-worker results, merged at the end
+    static class Stats {
+        long games = 0;
+        long draws = 0;
+        long totalTurns = 0;
+        long[] wins = new long[PLAYERS];
+        long[] lengths = new long[LENGTH_BUCKETS];
+
+        void add(Stats other) {
+            games += other.games;
+            draws += other.draws;
+            totalTurns += other.totalTurns;
+            for (int p = 0; p < PLAYERS; p++) wins[p] += other.wins[p];
+            for (int i = 0; i < LENGTH_BUCKETS; i++) lengths[i] += other.lengths[i];
+        }
+
+        // Smallest game length (in turns) that at least fraction of games finished within
+        int percentile(double fraction) {
+            long target = (long) Math.ceil(games * fraction);
+            long seen = 0;
+            for (int i = 0; i < LENGTH_BUCKETS; i++) {
+                seen += lengths[i];
+                if (seen >= target) return i;
+            }
+            return LENGTH_BUCKETS - 1;
+        }
+    }
+
+    static Bot createBot(String name) {
+        switch (name) {
+            case "random": return new RandomBot();
+            case "greedy": return new GreedyBot();
+            case "mcts": return new MctsBot(Integer.MAX_VALUE, 100);
+            case "expectimax": return new ExpectimaxBot(2, ExpectimaxBot.SHARED_TABLE);
+            default:
+                // mcts:N = fixed N iterations per decision (reproducible, unlike the 100 ms budget)
+                if (name.startsWith("mcts:")) return new MctsBot(Integer.parseInt(name.substring(5)), Long.MAX_VALUE / 1_000_000L);
+                if (name.startsWith("expectimax:")) return new ExpectimaxBot(Integer.parseInt(name.substring(11)), ExpectimaxBot.SHARED_TABLE);
+                throw new IllegalArgumentException("Unknown bot: " + name + " (use random, greedy, mcts[:N] or expectimax[:depth])");
+        }
+    }
+
+    // Plays one game to the end on an already-initialized engine.
+    // Bots draw from rnd, never game.rng, so the deck only depends on the game's seed.
+    static void playGame(GameEngine game, Bot[] bots, MoveBuffer moves, SplittableRandom rnd) {
+        playGame(game, bots, moves, rnd, null);
+    }
+
+    // Same, adding each decision and the game's events (GameEventIndex) to record if it isn't null
+    static void playGame(GameEngine game, Bot[] bots, MoveBuffer moves, SplittableRandom rnd, GameRecord record) {
+        playGame(game, bots, moves, rnd, record, null, 0);
+    }
+
+    // Same, also logging each decision ahead of applying it to log as game logId, if log isn't null.
+    // It doesn't wait for the disk: a batch run can be rerun from its seed, unlike a player's move
+    static void playGame(GameEngine game, Bot[] bots, MoveBuffer moves, SplittableRandom rnd, GameRecord record,
+            MoveLog log, long logId) {
+        if (log != null) log.checkpoint(logId, game);
+        int sinceCheckpoint = 0;
+        while (!game.isOver()) {
+            int card = game.prepareDecision(moves);
+            int choice = bots[game.currentPlayer].chooseMove(game, card, moves, rnd);
+            int move = moves.get(choice);
+            if (log != null) log.move(logId, choice);
+            if (record == null) {
+                game.applyDecision(move);
+            } else {
+                record.add(card, choice);
+                record.events |= GameEventIndex.before(game, move);
+                game.applyDecision(move);
+                record.events |= GameEventIndex.after(game, move);
+            }
+            if (log != null && ++sinceCheckpoint == MoveLog.CHECKPOINT_EVERY) {
+                log.checkpoint(logId, game);
+                sinceCheckpoint = 0;
+            }
+        }
+        if (log != null) log.end(logId);
+        if (record != null) {
+            record.winner = game.winner;
+            record.events |= GameEventIndex.atEnd(game);
+        }
+    }
+
+    // Game n of a run with base seed s is GameRandom.seedFor(s, n) for the deck and the
+    // same mixed with BOT_SALT for the bots, so any one game can be rerun on its own.
+    static final long BOT_SALT = 0xB075L;
+
+    // out: channel to record every game to, archive: archive to add every game to,
+    // log: move log for every decision, game n logged as logBase + n; any may be null
+    static Stats runWorker(long firstGame, int games, String[] botNames, long baseSeed, FileChannel out,
+            GameArchiveWriter archive, MoveLog log, long logBase) throws Exception {
+        Bot[] bots = new Bot[PLAYERS];
+        for (int p = 0; p < PLAYERS; p++) bots[p] = createBot(botNames[p]);
+        GameEngine game = new GameEngine(baseSeed);
+        MoveBuffer moves = new MoveBuffer();
+        Stats stats = new Stats();
+        GameRecordWriter writer = out == null ? null : new GameRecordWriter(out, baseSeed);
+        GameRecord record = out == null && archive == null ? null : new GameRecord();
+
+        for (int g = 0; g < games; g++) {
+            long gameSeed = GameRandom.seedFor(baseSeed, firstGame + g);
+            game.initializeGame(gameSeed);
+            if (record != null) record.start(firstGame + g, gameSeed);
+            playGame(game, bots, moves, new SplittableRandom(gameSeed ^ BOT_SALT), record, log, logBase + firstGame + g);
+            if (writer != null) writer.write(record);
+            if (archive != null) archive.append(record);
+
+            stats.games++;
+            stats.totalTurns += game.turns;
+            stats.lengths[Math.min(game.turns, LENGTH_BUCKETS - 1)]++;
+            if (game.winner == -1) stats.draws++;
+            else stats.wins[game.winner]++;
+        }
+        if (writer != null) writer.flush();
+        return stats;
+    }
+
+    static Stats simulate(int games, String[] botNames, int threads, long baseSeed, FileChannel out,
+            GameArchiveWriter archive, MoveLog log) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long logBase = log == null ? 0 : log.reserveGames(games); // after any games already in the log
+        try {
+            List<Future<Stats>> parts = new ArrayList<>();
+            long first = 0;
+            for (int w = 0; w < threads; w++) {
+                int share = games / threads + (w < games % threads ? 1 : 0);
+                long firstGame = first; // each worker plays a fixed range of game numbers
+                parts.add(pool.submit(() -> runWorker(firstGame, share, botNames, baseSeed, out, archive, log, logBase)));
+                first += share;
+            }
+            Stats total = new Stats();
+            for (Future<Stats> part : parts) total.add(part.get());
+            return total;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static void report(Stats stats, String[] botNames, long seed, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.println("=== SIMULATION ===");
+        System.out.println("Seed: " + seed);
+        System.out.println("Games: " + stats.games + " in " + String.format("%.2f", seconds) + " s ("
+                + String.format("%,.0f", stats.games / seconds) + " games/s)");
+        for (int p = 0; p < PLAYERS; p++) {
+            System.out.println(String.format("%-6s (%-6s) wins: %6.2f%%", SorryGood.PLAYER_COLORS[p], botNames[p],
+                    100.0 * stats.wins[p] / stats.games));
+        }
+        if (stats.draws > 0) {
+            System.out.println("Unfinished after " + GameEngine.MAX_TURNS + " turns: " + stats.draws);
+        }
+        System.out.println(String.format("Turns per game: mean %.1f | p10 %d | p50 %d | p90 %d | p99 %d",
+                (double) stats.totalTurns / stats.games, stats.percentile(0.10), stats.percentile(0.50),
+                stats.percentile(0.90), stats.percentile(0.99)));
+
+        // Coarse histogram
+        long max = 0;
+        long[] bins = new long[LENGTH_BUCKETS / HISTOGRAM_BIN + 1];
+        for (int i = 0; i < LENGTH_BUCKETS; i++) bins[i / HISTOGRAM_BIN] += stats.lengths[i];
+        int last = 0;
+        for (int b = 0; b < bins.length; b++) {
+            max = Math.max(max, bins[b]);
+            if (bins[b] > 0) last = b;
+        }
+        for (int b = 0; b <= last; b++) {
+            int bar = (int) (40 * bins[b] / Math.max(1, max));
+            System.out.println(String.format("%4d-%-4d %s %d", b * HISTOGRAM_BIN, b * HISTOGRAM_BIN + HISTOGRAM_BIN - 1,
+                    "#".repeat(bar), bins[b]));
+        }
+        System.out.println("==================");
+    }
+
+    // args: [games] [bot,bot,bot,bot] [seed] [--record file] [--archive file] [--wal file]
+    public static void main(String[] args) throws Exception {
+        Path recordFile = null;
+        Path archiveFile = null;
+        Path logFile = null;
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--record") && i + 1 < args.length) recordFile = Path.of(args[++i]);
+            else if (args[i].equals("--archive") && i + 1 < args.length) archiveFile = Path.of(args[++i]);
+            else if (args[i].equals("--wal") && i + 1 < args.length) logFile = Path.of(args[++i]);
+            else positional.add(args[i]);
+        }
+
+        int games = positional.size() > 0 ? Integer.parseInt(positional.get(0)) : 100000;
+        String[] botNames = {"random", "random", "random", "random"};
+        if (positional.size() > 1) {
+            String[] given = positional.get(1).split(",");
+            for (int p = 0; p < PLAYERS; p++) botNames[p] = given[Math.min(p, given.length - 1)];
+        }
+        long seed = positional.size() > 2 ? Long.parseLong(positional.get(2)) : new SplittableRandom().nextLong();
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        FileChannel out = null;
+        if (recordFile != null) {
+            out = FileChannel.open(recordFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            GameRecordWriter.writeHeader(out, seed);
+        }
+        GameArchiveWriter archive = archiveFile == null ? null : new GameArchiveWriter(archiveFile, seed);
+        MoveLog log = logFile == null ? null : new MoveLog(logFile);
+
+        long start = System.nanoTime();
+        Stats stats = simulate(games, botNames, threads, seed, out, archive, log);
+        report(stats, botNames, seed, System.nanoTime() - start);
+
+        if (out != null) {
+            System.out.println(String.format("Recorded to %s: %,d bytes (%.1f bytes/game)", recordFile,
+                    out.size(), (double) out.size() / Math.max(1, stats.games)));
+            out.close();
+        }
+        if (archive != null) {
+            archive.close();
+            System.out.println(String.format("Added %,d games to %s", stats.games, archiveFile));
+        }
+        if (log != null) {
+            log.close();
+            System.out.println(String.format("Logged %,d games to %s", stats.games, logFile));
+        }
+    }
+}
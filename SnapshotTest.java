@@ -0,0 +1,170 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * GameSnapshot and Autosaver checks: java SnapshotTest (see Checks).
+ * Saves games mid-play, loads them into fresh engines and plays both copies on, and feeds
+ * read() snapshots with one thing wrong.
+ */
+public class SnapshotTest extends Checks {
+
+    static MoveBuffer moves = new MoveBuffer();
+    static Bot[] bots = {new RandomBot(), new RandomBot(), new RandomBot(), new RandomBot()};
+
+    // Offsets into a snapshot, from the layout in GameSnapshot
+    static final int VERSION_AT = 4;
+    static final int PAWNS_AT = 4 + 1 + 8 + 8 + 1 + 1 + 4 + 1;
+    static final int DECK_AT = GameSnapshot.BYTES - GameEngine.DECK_SIZE / 2;
+
+    static void play(GameEngine game, int decisions, SplittableRandom rnd) {
+        for (int i = 0; i < decisions && !game.isOver(); i++) {
+            int card = game.prepareDecision(moves);
+            int choice = bots[game.currentPlayer].chooseMove(game, card, moves, rnd);
+            game.applyDecision(moves.get(choice));
+        }
+    }
+
+    // Everything a snapshot restores, and what the engine derives from it
+    static boolean sameGame(GameEngine a, GameEngine b) {
+        return a.seed == b.seed && a.rng.state == b.rng.state && a.currentPlayer == b.currentPlayer
+                && a.winner == b.winner && a.turns == b.turns && a.pendingCard == b.pendingCard
+                && a.savedSorryDeclined == b.savedSorryDeclined && a.hash == b.hash
+                && Arrays.deepEquals(a.pawnPositions, b.pawnPositions)
+                && Arrays.equals(a.savedSorryCards, b.savedSorryCards)
+                && Arrays.equals(a.occupant, b.occupant)
+                && a.deck.drawn == b.deck.drawn && Arrays.equals(a.deck.cards, b.deck.cards)
+                && Arrays.equals(a.deck.left, b.deck.left);
+    }
+
+    static GameEngine load(byte[] snapshot) throws IOException {
+        GameEngine game = new GameEngine(0);
+        GameSnapshot.read(game, ByteBuffer.wrap(snapshot).order(ByteOrder.LITTLE_ENDIAN));
+        return game;
+    }
+
+    // Saved at several points, loaded into a fresh engine, then both play on with the same bot draws
+    static void roundTrip() throws Exception {
+        for (int decisions : new int[] {0, 1, 37, 200}) {
+            GameEngine game = new GameEngine(19);
+            game.initializeGame(1900 + decisions);
+            play(game, decisions, new SplittableRandom(decisions));
+            byte[] snapshot = GameSnapshot.toBytes(game);
+            check(snapshot.length == GameSnapshot.BYTES, "snapshot is " + snapshot.length + " bytes");
+
+            GameEngine back = load(snapshot);
+            check(sameGame(game, back), "after " + decisions + " decisions: loaded game matches");
+            check(Arrays.equals(snapshot, GameSnapshot.toBytes(back)), "after " + decisions + " decisions: loaded game saves the same bytes");
+
+            play(game, Integer.MAX_VALUE, new SplittableRandom(~decisions));
+            play(back, Integer.MAX_VALUE, new SplittableRandom(~decisions));
+            check(game.isOver() && sameGame(game, back), "after " + decisions + " decisions: both copies play to the same end");
+        }
+    }
+
+    // Each bad snapshot is refused with an IOException and leaves the engine as it was
+    static void refused(byte[] snapshot, String what) throws Exception {
+        GameEngine game = new GameEngine(0);
+        game.initializeGame(7);
+        play(game, 10, new SplittableRandom(7));
+        GameEngine before = new GameEngine(0);
+        before.copyFrom(game);
+        before.seed = game.seed;
+        before.rng.state = game.rng.state;
+        try {
+            GameSnapshot.read(game, ByteBuffer.wrap(snapshot).order(ByteOrder.LITTLE_ENDIAN));
+            check(false, what + " is refused");
+        } catch (IOException expected) {
+        }
+        check(sameGame(game, before), what + " leaves the game unchanged");
+    }
+
+    static void badSnapshots() throws Exception {
+        GameEngine game = new GameEngine(0);
+        game.initializeGame(23);
+        play(game, 50, new SplittableRandom(23));
+        byte[] good = GameSnapshot.toBytes(game);
+
+        byte[] bytes = good.clone();
+        bytes[0] = 'X';
+        refused(bytes, "bad magic");
+
+        bytes = good.clone();
+        bytes[VERSION_AT] = GameSnapshot.VERSION + 1;
+        refused(bytes, "bad version");
+
+        refused(Arrays.copyOf(good, GameSnapshot.BYTES - 1), "short snapshot");
+
+        bytes = good.clone();
+        bytes[PAWNS_AT + 5] = (byte) (GameEngine.HOME_POS + 2);
+        refused(bytes, "position past Home");
+        bytes = good.clone();
+        bytes[PAWNS_AT] = (byte) -1;
+        refused(bytes, "position before Start");
+
+        bytes = good.clone();
+        bytes[DECK_AT + 3] |= (byte) 0xF0; // card index 15
+        refused(bytes, "bad card");
+        bytes = good.clone();
+        bytes[DECK_AT] = bytes[DECK_AT + 1] = 0; // four more of card 0, and fewer of others
+        refused(bytes, "deck that is not a full set");
+
+        // Counts the byte can't hold are refused on the way in, before anything is written
+        game.savedSorryCards[2] = 255;
+        check(load(GameSnapshot.toBytes(game)).savedSorryCards[2] == 255, "255 saved Sorry! cards round-trip");
+        game.savedSorryCards[2] = 256;
+        ByteBuffer out = ByteBuffer.allocate(GameSnapshot.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            GameSnapshot.write(game, out);
+            check(false, "256 saved Sorry! cards are refused");
+        } catch (IllegalArgumentException expected) {
+        }
+        check(out.position() == 0, "refused snapshot wrote nothing");
+    }
+
+    // Autosaver writes through file.tmp and moves it over the save; the last save wins
+    static void autosave() throws Exception {
+        Path dir = Files.createTempDirectory("snapshot-test");
+        Path file = dir.resolve("game.snap");
+        Path temp = dir.resolve("game.snap.tmp");
+        try {
+            GameEngine game = new GameEngine(0);
+            game.initializeGame(31);
+            SplittableRandom rnd = new SplittableRandom(31);
+            try (Autosaver saver = new Autosaver(file)) {
+                for (int i = 0; i < 20; i++) {
+                    play(game, 5, rnd);
+                    saver.save(game);
+                }
+            }
+            check(Files.exists(file) && Files.size(file) == GameSnapshot.BYTES, "autosave file holds one snapshot");
+            check(!Files.exists(temp), "autosave leaves no temp file");
+            GameEngine back = new GameEngine(0);
+            GameSnapshot.load(file, back);
+            check(sameGame(game, back), "autosave holds the last position saved");
+
+            // A second saver replaces the save in place
+            play(game, 5, rnd);
+            try (Autosaver saver = new Autosaver(file)) {
+                saver.save(game);
+            }
+            GameSnapshot.load(file, back);
+            check(sameGame(game, back) && !Files.exists(temp), "second autosave replaces the first");
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(temp);
+            Files.delete(dir);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        roundTrip();
+        badSnapshots();
+        autosave();
+        finish("snapshot");
+    }
+}
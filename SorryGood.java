@@ -1,10 +1,14 @@
-import java.util.Random;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
+import java.util.SplittableRandom;
 
 /**
  * Console-based SORRY! (simplified)
  * - Keeps the printable 16x16 grid as the board display.
  * - Implements the gameplay logic from SorryTest.java without ArrayList/Collections.
+ * - Rules and state live in GameEngine; this class prompts, narrates and draws the board.
  *
  * Positions:
  *   -1  = Start
@@ -17,39 +21,23 @@ import java.util.Scanner;
 public class SorryGood {
 
     // ===== Game constants =====
-    static final int PLAYERS = 4;
-    static final int PAWNS_PER_PLAYER = 4;
+    static final int PLAYERS = GameEngine.PLAYERS;
+    static final int PAWNS_PER_PLAYER = GameEngine.PAWNS_PER_PLAYER;
 
     static final int SIZE = 16;           // Grid size
-    static final int BOARD_SIZE = 60;     // Main track size (perimeter of 16x16)
-    static final int HOME_STRETCH_SIZE = 5; // Size of the grid leading up to home
-    static final int HOME_POS = BOARD_SIZE + HOME_STRETCH_SIZE; // 65
+    static final int BOARD_SIZE = GameEngine.BOARD_SIZE;     // Main track size (perimeter of 16x16)
+    static final int HOME_STRETCH_SIZE = GameEngine.HOME_STRETCH_SIZE; // Size of the grid leading up to home
+    static final int HOME_POS = GameEngine.HOME_POS; // 65
 
     static final String[] PLAYER_COLORS = {"Red", "Blue", "Yellow", "Green"};
     static final char[] PLAYER_LETTER = {'R', 'B', 'Y', 'G'};
 
-    // Starting positions for each player on the board
-    static final int[] START_POSITIONS = {0, 15, 30, 45};
+    // State lives in the engine; this class is only the console client
+    static GameEngine game = new GameEngine();
 
-    // Home stretch entry positions for each player
-    static final int[] HOME_ENTRY_POSITIONS = {2, 17, 32, 47};
-
-    // State
-    static int currentPlayer = 0;
-    static int[][] pawnPositions = new int[PLAYERS][PAWNS_PER_PLAYER];
-    static int[] savedSorryCards = new int[PLAYERS];
-
-    // Set up Input
+    // Set up Input: one controller per seat answers the prompts (console, script or bot)
     static Scanner sc = new Scanner(System.in);
-    static int nextInt() { return sc.nextInt(); }
-
-    // Deck
-    // Sorry! deck: 4 of each card 1-12 (no 6 or 9), plus 4 Sorry! cards (represented as 13)
-    static final int[] CARD_TYPES = {1, 2, 3, 4, 5, 7, 8, 10, 11, 12, 13};
-    static final int DECK_SIZE = 44; // 11 card types * 4
-    static int[] deck = new int[DECK_SIZE];
-    static int deckIndex = 0;
-    static Random rng = new Random();
+    static PlayerController[] controllers = new PlayerController[PLAYERS];
 
     // ===== Grid / track mapping =====
     static final int TRACK_LEN = BOARD_SIZE;
@@ -245,7 +233,7 @@ public class SorryGood {
         // Overlay pawns
         for (int p = 0; p < PLAYERS; p++) {
             for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
-                int pos = pawnPositions[p][pawn];
+                int pos = game.pawnPositions[p][pawn];
                 if (pos >= 0 && pos < BOARD_SIZE) {
                     int rr = trackRow[pos];
                     int cc = trackColumn[pos];
@@ -269,19 +257,17 @@ public class SorryGood {
     }
 
     // ===== Board status =====
-    static void displayBoard() {
-        buildDisplayGrid();
-        printGrid(upperGrid);
+    // Whole board + pawn status in one write (see BoardRenderer).
+    // With --ansi the board stays pinned at the top and only changed cells are redrawn.
+    static BoardRenderer renderer;
+    static boolean ansi = false;
+    static long seed;
+    static Path loadFile;     // --load: resume this snapshot instead of dealing a new game
+    static Path autosaveFile; // --autosave: snapshot here at the start of every turn
 
-        System.out.println("\n=== PAWN STATUS ===");
-        for (int player = 0; player < PLAYERS; player++) {
-            System.out.print(PLAYER_COLORS[player] + ": ");
-            for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
-                System.out.print("[" + getPositionDescription(player, pawnPositions[player][pawn]) + "] ");
-            }
-            System.out.println();
-        }
-        System.out.println("===================\n");
+    static void displayBoard() throws IOException {
+        if (ansi) renderer.renderDiff(game, System.out);
+        else renderer.render(game, System.out);
     }
 
     static String getPositionDescription(int player, int pos) {
@@ -291,41 +277,6 @@ public class SorryGood {
         return "Track " + pos;
     }
 
-    static void nextPlayer() { currentPlayer = (currentPlayer + 1) % PLAYERS; }
-
-    // ===== Game setup / deck =====
-    static void initializeGame() {
-        for (int i = 0; i < PLAYERS; i++) {
-            for (int j = 0; j < PAWNS_PER_PLAYER; j++) {
-                pawnPositions[i][j] = -1;
-            }
-            savedSorryCards[i] = 0;
-        }
-        resetDeck();
-    }
-
-    static void resetDeck() {
-        int idx = 0;
-        for (int t = 0; t < CARD_TYPES.length; t++) {
-            for (int k = 0; k < 4; k++) {
-                deck[idx++] = CARD_TYPES[t];
-            }
-        }
-        // Fisher-Yates shuffle
-        for (int i = deck.length - 1; i > 0; i--) {
-            int j = rng.nextInt(i + 1);
-            int tmp = deck[i];
-            deck[i] = deck[j];
-            deck[j] = tmp;
-        }
-        deckIndex = 0;
-    }
-
-    static int drawCard() {
-        if (deckIndex >= deck.length) resetDeck();
-        return deck[deckIndex++];
-    }
-
     static String getCardName(int card) {
         return card == 13 ? "Sorry!" : String.valueOf(card);
     }
@@ -388,26 +339,26 @@ public class SorryGood {
 
     static void playCard1(int player) {
         System.out.println("Choose action: (1) Move pawn from Start, (2) Move forward 1 space");
-        int choice = nextInt();
+        int choice = controllers[player].chooseAction(game, player, 1);
         if (choice == 1) moveFromStart(player);
         else moveForward(player, 1);
     }
 
     static void playCard2(int player) {
         System.out.println("Choose action: (1) Move pawn from Start, (2) Move forward 2 spaces");
-        int choice = nextInt();
+        int choice = controllers[player].chooseAction(game, player, 2);
         if (choice == 1) moveFromStart(player);
         else moveForward(player, 2);
     }
 
     static void playCard7(int player) {
         System.out.println("Choose action: (1) Move one pawn 7 spaces, (2) Split between two pawns");
-        int choice = nextInt();
+        int choice = controllers[player].chooseAction(game, player, 7);
         if (choice == 1) {
             moveForward(player, 7);
         } else {
             System.out.println("Enter spaces for first pawn (1-6):");
-            int first = nextInt();
+            int first = controllers[player].chooseSplit(game, player);
             if (first < 1) first = 1;
             if (first > 6) first = 6;
             int second = 7 - first;
@@ -425,52 +376,40 @@ public class SorryGood {
 
     static void playCard10(int player) {
         System.out.println("Choose action: (1) Move forward 10 spaces, (2) Move backward 1 space");
-        int choice = nextInt();
+        int choice = controllers[player].chooseAction(game, player, 10);
         if (choice == 1) moveForward(player, 10);
         else moveBackward(player, 1);
     }
 
     static void playCard11(int player) {
         System.out.println("Choose action: (1) Move forward 11 spaces, (2) Switch with opponent");
-        int choice = nextInt();
+        int choice = controllers[player].chooseAction(game, player, 11);
         if (choice == 1) moveForward(player, 11);
         else switchWithOpponent(player);
     }
 
     static void playCard13(int player) {
         System.out.println("Choose action: (1) Use Sorry! now, (2) Save for later");
-        int choice = nextInt();
+        int choice = controllers[player].chooseAction(game, player, 13);
         if (choice == 1) playSorryCard(player);
         else {
-            savedSorryCards[player]++;
-            System.out.println("Sorry! card saved. You now have " + savedSorryCards[player] + " saved.");
+            game.saveSorryCard(player);
+            System.out.println("Sorry! card saved. You now have " + game.savedSorryCards[player] + " saved.");
         }
     }
 
     // ===== Moves =====
     static void moveFromStart(int player) {
-        // find a pawn in start
-        int startPawn = -1;
-        for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
-            if (pawnPositions[player][pawn] == -1) { startPawn = pawn; break; }
-        }
-        if (startPawn == -1) {
+        int result = game.moveFromStart(player);
+        if (result == GameEngine.NO_START_PAWN) {
             System.out.println("No pawns in Start!");
             return;
         }
-
-        int startPos = START_POSITIONS[player];
-
-        // blocked by own pawn?
-        if (isOwnPawnAt(player, startPos)) {
+        if (result == GameEngine.BLOCKED) {
             System.out.println("Cannot move from Start - blocked by your own pawn!");
             return;
         }
-
-        pawnPositions[player][startPawn] = startPos;
-        System.out.println("Pawn " + (startPawn + 1) + " moved from Start to position " + startPos);
-        checkBump(player, startPawn);
-        checkSlide(player, startPawn);
+        game.publishEvents();
     }
 
     static void moveForward(int player, int spaces) {
@@ -489,7 +428,7 @@ public class SorryGood {
 
         System.out.println("Your pawns:");
         for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
-            int pos = pawnPositions[player][pawn];
+            int pos = game.pawnPositions[player][pawn];
             System.out.println((pawn + 1) + ": " + getPositionDescription(player, pos));
             if (!onBoardOnly || (pos >= 0 && pos < HOME_POS)) {
                 canPick[pawn] = true;
@@ -503,7 +442,7 @@ public class SorryGood {
         }
 
         System.out.println("Select pawn (1-4):");
-        int choice = nextInt() - 1;
+        int choice = controllers[player].choosePawn(game, player);
         if (choice >= 0 && choice < PAWNS_PER_PLAYER && canPick[choice]) return choice;
 
         System.out.println("Invalid selection!");
@@ -511,122 +450,26 @@ public class SorryGood {
     }
 
     static void movePawn(int player, int pawn, int spaces, boolean forward) {
-        int currentPos = pawnPositions[player][pawn];
-
-        if (currentPos == -1) {
-            System.out.println("This pawn is at Start and cannot move that way!");
-            return;
-        }
-        if (currentPos == HOME_POS) {
-            System.out.println("This pawn is already HOME!");
-            return;
-        }
-
-        // Pawn is in home stretch
-        if (currentPos >= BOARD_SIZE && currentPos < HOME_POS) {
-            int homeStretchPos = currentPos - BOARD_SIZE;
-            int newHomeStretchPos = homeStretchPos + spaces;
-
-            if (newHomeStretchPos >= HOME_STRETCH_SIZE) {
-                pawnPositions[player][pawn] = HOME_POS;
-                System.out.println("Pawn " + (pawn + 1) + " reached HOME!");
-            } else if (newHomeStretchPos >= 0) {
-                pawnPositions[player][pawn] = BOARD_SIZE + newHomeStretchPos;
-                System.out.println("Pawn " + (pawn + 1) + " moved in home stretch to position " + newHomeStretchPos);
-            } else {
+        int result = game.movePawn(player, pawn, spaces, forward);
+        switch (result) {
+            case GameEngine.AT_START:
+                System.out.println("This pawn is at Start and cannot move that way!");
+                break;
+            case GameEngine.ALREADY_HOME:
+                System.out.println("This pawn is already HOME!");
+                break;
+            case GameEngine.PAST_HOME_STRETCH:
                 System.out.println("Cannot move backward past start of home stretch.");
-            }
-            return;
-        }
-
-        // On main board
-        int newPos = (currentPos + spaces + BOARD_SIZE) % BOARD_SIZE;
-
-        // Enter home stretch if passing home entry (forward moves only)
-        int homeEntry = HOME_ENTRY_POSITIONS[player];
-        if (forward && spaces > 0) {
-            int distanceToHome = (homeEntry - currentPos + BOARD_SIZE) % BOARD_SIZE;
-            if (distanceToHome > 0 && distanceToHome <= spaces) {
-                int remaining = spaces - distanceToHome;
-                if (remaining <= HOME_STRETCH_SIZE) {
-                    pawnPositions[player][pawn] = BOARD_SIZE + remaining - 1; // 0..4
-                    System.out.println("Pawn " + (pawn + 1) + " entered home stretch at position " + (remaining - 1));
-                    if (remaining == HOME_STRETCH_SIZE) {
-                        pawnPositions[player][pawn] = HOME_POS;
-                        System.out.println("Pawn " + (pawn + 1) + " reached HOME!");
-                    }
-                    return;
-                }
-            }
-        }
-
-        // Blocked by own pawn
-        if (isOwnPawnAt(player, newPos)) {
-            System.out.println("Cannot move - blocked by your own pawn!");
-            return;
+                break;
+            case GameEngine.BLOCKED:
+                System.out.println("Cannot move - blocked by your own pawn!");
+                break;
+            default:
+                game.publishEvents(); // narrated by ConsoleNarrator
         }
-
-        pawnPositions[player][pawn] = newPos;
-        System.out.println("Pawn " + (pawn + 1) + " moved to position " + newPos);
-        checkBump(player, pawn);
-        checkSlide(player, pawn);
     }
 
     // ===== Interactions =====
-    static boolean isOwnPawnAt(int player, int pos) {
-        for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
-            if (pawnPositions[player][pawn] == pos) return true;
-        }
-        return false;
-    }
-
-    static void checkBump(int player, int pawn) {
-        int pos = pawnPositions[player][pawn];
-        if (pos < 0 || pos >= BOARD_SIZE) return; // only bump on main track
-
-        for (int p = 0; p < PLAYERS; p++) {
-            if (p == player) continue;
-            for (int otherPawn = 0; otherPawn < PAWNS_PER_PLAYER; otherPawn++) {
-                if (pawnPositions[p][otherPawn] == pos) {
-                    pawnPositions[p][otherPawn] = -1;
-                    System.out.println("BUMP! " + PLAYER_COLORS[p] + "'s pawn sent back to Start!");
-                }
-            }
-        }
-    }
-
-    static void checkSlide(int player, int pawn) {
-        int pos = pawnPositions[player][pawn];
-        if (pos < 0 || pos >= BOARD_SIZE) return;
-
-        // One slide per color, length 4 (matches SorryTest logic)
-        int[] slideStart = {1, 16, 31, 46};
-        int slideLen = 4;
-
-        for (int colorOwner = 0; colorOwner < PLAYERS; colorOwner++) {
-            if (colorOwner == player) continue; // can't slide on your own color
-            if (pos == slideStart[colorOwner]) {
-                int endPos = (pos + slideLen) % BOARD_SIZE;
-                pawnPositions[player][pawn] = endPos;
-                System.out.println("SLIDE! Moved to position " + endPos);
-
-                // Bump any pawns on the slide path
-                for (int step = 1; step <= slideLen; step++) {
-                    int slidePos = (pos + step) % BOARD_SIZE;
-                    for (int op = 0; op < PLAYERS; op++) {
-                        for (int opPawn = 0; opPawn < PAWNS_PER_PLAYER; opPawn++) {
-                            if (pawnPositions[op][opPawn] == slidePos) {
-                                pawnPositions[op][opPawn] = -1;
-                                System.out.println(PLAYER_COLORS[op] + "'s pawn bumped by slide!");
-                            }
-                        }
-                    }
-                }
-                return;
-            }
-        }
-    }
-
     static void switchWithOpponent(int player) {
         // gather targets
         int[] tPlayer = new int[12];
@@ -637,7 +480,7 @@ public class SorryGood {
         for (int p = 0; p < PLAYERS; p++) {
             if (p == player) continue;
             for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
-                int pos = pawnPositions[p][pawn];
+                int pos = game.pawnPositions[p][pawn];
                 if (pos >= 0 && pos < BOARD_SIZE) {
                     tPlayer[tCount] = p;
                     tPawn[tCount] = pawn;
@@ -655,7 +498,7 @@ public class SorryGood {
         int myPawn = selectPawn(player, true);
         if (myPawn == -1) return;
 
-        int myPos = pawnPositions[player][myPawn];
+        int myPos = game.pawnPositions[player][myPawn];
         if (myPos < 0 || myPos >= BOARD_SIZE) {
             System.out.println("You need a pawn on the main board to switch!");
             return;
@@ -666,19 +509,14 @@ public class SorryGood {
             System.out.println((i + 1) + ": " + PLAYER_COLORS[tPlayer[i]] + " pawn at position " + tPos[i]);
         }
         System.out.println("Select target (1-" + tCount + "):");
-        int choice = nextInt() - 1;
+        int choice = controllers[player].chooseTarget(game, player, tPlayer, tPawn, tCount);
         if (choice < 0 || choice >= tCount) {
             System.out.println("Invalid target!");
             return;
         }
 
-        int otherPlayer = tPlayer[choice];
-        int otherPawn = tPawn[choice];
-        int theirPos = tPos[choice];
-
-        pawnPositions[player][myPawn] = theirPos;
-        pawnPositions[otherPlayer][otherPawn] = myPos;
-        System.out.println("Switched positions! You are now at " + theirPos);
+        game.switchWithOpponent(player, myPawn, tPlayer[choice], tPawn[choice]);
+        game.publishEvents();
     }
 
     static void playSorryCard(int player) {
@@ -691,7 +529,7 @@ public class SorryGood {
         for (int p = 0; p < PLAYERS; p++) {
             if (p == player) continue;
             for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
-                int pos = pawnPositions[p][pawn];
+                int pos = game.pawnPositions[p][pawn];
                 if (pos >= 0 && pos < BOARD_SIZE) {
                     tPlayer[tCount] = p;
                     tPawn[tCount] = pawn;
@@ -707,11 +545,7 @@ public class SorryGood {
         }
 
         // must have a pawn in start
-        int startPawn = -1;
-        for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
-            if (pawnPositions[player][pawn] == -1) { startPawn = pawn; break; }
-        }
-        if (startPawn == -1) {
+        if (game.findStartPawn(player) == -1) {
             System.out.println("You have no pawns in Start to use Sorry!");
             return;
         }
@@ -721,79 +555,172 @@ public class SorryGood {
             System.out.println((i + 1) + ": " + PLAYER_COLORS[tPlayer[i]] + " pawn at position " + tPos[i]);
         }
         System.out.println("Select target (1-" + tCount + "):");
-        int choice = nextInt() - 1;
+        int choice = controllers[player].chooseTarget(game, player, tPlayer, tPawn, tCount);
         if (choice < 0 || choice >= tCount) {
             System.out.println("Invalid target!");
             return;
         }
 
-        int targetPlayer = tPlayer[choice];
-        int targetPawn = tPawn[choice];
-        int targetPos = tPos[choice];
-
-        pawnPositions[targetPlayer][targetPawn] = -1;
-        System.out.println(PLAYER_COLORS[targetPlayer] + "'s pawn sent back to Start!");
-
-        pawnPositions[player][startPawn] = targetPos;
-        System.out.println(PLAYER_COLORS[player] + "'s pawn moved to position " + targetPos);
-
-        checkSlide(player, startPawn);
+        game.playSorryCard(player, tPlayer[choice], tPawn[choice]);
+        game.publishEvents();
     }
 
-    // ===== Win condition =====
-    static boolean checkWin(int player) {
-        for (int pawn = 0; pawn < PAWNS_PER_PLAYER; pawn++) {
-            if (pawnPositions[player][pawn] != HOME_POS) return false;
+    // ===== Main =====
+    // Options: --players human,greedy,random,human   (default: all human)
+    //          --script answers.txt                  (replay typed answers for every seat)
+    //          --ansi                                (redraw only changed cells, ANSI terminals)
+    //          --seed 12345                          (same deck and bot choices as an earlier game)
+    //          --load game.snap                      (resume a saved game)
+    //          --autosave game.snap                  (save every turn in the background; removed when the game ends)
+    static void setUpControllers(String[] args) throws IOException {
+        seed = new SplittableRandom().nextLong();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--ansi")) ansi = true;
+            if (args[i].equals("--seed") && i + 1 < args.length) seed = Long.parseLong(args[i + 1]);
+            if (args[i].equals("--load") && i + 1 < args.length) loadFile = Path.of(args[i + 1]);
+            if (args[i].equals("--autosave") && i + 1 < args.length) autosaveFile = Path.of(args[i + 1]);
+        }
+
+        PlayerController console = new ConsoleController(sc);
+        for (int p = 0; p < PLAYERS; p++) controllers[p] = console;
+
+        SplittableRandom rnd = new SplittableRandom(seed ^ Simulator.BOT_SALT);
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--players")) {
+                String[] names = args[i + 1].split(",");
+                for (int p = 0; p < PLAYERS; p++) {
+                    String name = names[Math.min(p, names.length - 1)];
+                    controllers[p] = name.equals("human") ? console : new BotController(Simulator.createBot(name), rnd.split());
+                }
+            } else if (args[i].equals("--script")) {
+                PlayerController script = ScriptedController.fromFile(Path.of(args[i + 1]));
+                for (int p = 0; p < PLAYERS; p++) controllers[p] = script;
+            }
         }
-        return true;
     }
 
-    // ===== Main =====
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // Headless mode: java SorryGood simulate [games] [bot,bot,bot,bot] [seed] [--record file] [--archive file]
+        if (args.length > 0 && args[0].equals("simulate")) {
+            String[] rest = new String[args.length - 1];
+            System.arraycopy(args, 1, rest, 0, rest.length);
+            Simulator.main(rest);
+            return;
+        }
+        // java SorryGood replay games.srec
+        if (args.length > 1 && args[0].equals("replay")) {
+            GameRecordReader.main(new String[] {args[1]});
+            return;
+        }
+        // java SorryGood archive games.sarc [n]
+        if (args.length > 1 && args[0].equals("archive")) {
+            String[] rest = new String[args.length - 1];
+            System.arraycopy(args, 1, rest, 0, rest.length);
+            GameArchive.main(rest);
+            return;
+        }
+        // java SorryGood serve [port] [games.wal]
+        if (args.length > 0 && args[0].equals("serve")) {
+            String[] rest = new String[args.length - 1];
+            System.arraycopy(args, 1, rest, 0, rest.length);
+            GameServer.main(rest);
+            return;
+        }
+        // java SorryGood gateway [port]
+        if (args.length > 0 && args[0].equals("gateway")) {
+            GameGateway.main(args.length > 1 ? new String[] {args[1]} : new String[0]);
+            return;
+        }
+        // java SorryGood loadgen [host] [port] [clients] [seconds] [think ms]
+        if (args.length > 0 && args[0].equals("loadgen")) {
+            String[] rest = new String[args.length - 1];
+            System.arraycopy(args, 1, rest, 0, rest.length);
+            LoadGenerator.main(rest);
+            return;
+        }
+        // java SorryGood recover games.wal [bot,bot,bot,bot]
+        if (args.length > 1 && args[0].equals("recover")) {
+            String[] rest = new String[args.length - 1];
+            System.arraycopy(args, 1, rest, 0, rest.length);
+            MoveLog.main(rest);
+            return;
+        }
+        // java SorryGood query games.sarc event[,event...]
+        if (args.length > 0 && args[0].equals("query")) {
+            if (args.length < 3) {
+                System.out.println("Usage: java SorryGood query games.sarc event[,event...]   (!event: it didn't happen)");
+                System.out.println("Events: " + String.join(", ", GameEventIndex.EVENT_NAMES));
+                return;
+            }
+            GameEventIndex.main(new String[] {args[1], args[2]});
+            return;
+        }
+
+        setUpControllers(args);
         displayRules();
 
         initTrack();
         initBaseGrid();
-        initializeGame();
+        renderer = new BoardRenderer();
+        game.listen(new ConsoleNarrator(System.out));
+        if (loadFile != null) {
+            GameSnapshot.load(loadFile, game);
+            System.out.println("Resumed saved game from " + loadFile + ", " + PLAYER_COLORS[game.currentPlayer] + " to play");
+        } else {
+            game.initializeGame(seed);
+        }
+        Autosaver autosave = autosaveFile == null ? null : new Autosaver(autosaveFile);
 
         boolean gameOver = false;
 
         while (!gameOver) {
-            System.out.println("\n--- " + PLAYER_COLORS[currentPlayer] + "'s turn ---");
+            if (autosave != null) autosave.save(game);
+            int player = game.currentPlayer;
+            System.out.println("\n--- " + PLAYER_COLORS[player] + "'s turn ---");
             displayBoard();
 
             // Saved Sorry? card option
-            if (savedSorryCards[currentPlayer] > 0) {
-                System.out.println("You have " + savedSorryCards[currentPlayer] + " saved Sorry! card(s).");
+            if (game.savedSorryCards[player] > 0) {
+                System.out.println("You have " + game.savedSorryCards[player] + " saved Sorry! card(s).");
                 System.out.println("Do you want to use a Sorry! card? (1 = Yes, 0 = No)");
-                int useSorry = nextInt();
+                controllers[player].startTurn(game, player, GameEngine.SAVED_SORRY_CARD);
+                int useSorry = controllers[player].chooseAction(game, player, GameEngine.SAVED_SORRY_CARD);
                 if (useSorry == 1) {
-                    playSorryCard(currentPlayer);
-                    savedSorryCards[currentPlayer]--;
-                    if (checkWin(currentPlayer)) {
+                    playSorryCard(player);
+                    game.useSavedSorryCard(player);
+                    if (game.checkWin(player)) {
                         gameOver = true;
                         break;
                     }
-                    nextPlayer();
+                    game.nextPlayer();
                     continue;
                 }
             }
 
-            int card = drawCard();
-            System.out.println(PLAYER_COLORS[currentPlayer] + " drew a " + getCardName(card));
+            int card = game.drawCard();
+            System.out.println(PLAYER_COLORS[player] + " drew a " + getCardName(card));
             printCardAction(card);
 
-            boolean playAgain = playCard(currentPlayer, card);
+            controllers[player].startTurn(game, player, card);
+            boolean playAgain = playCard(player, card);
 
-            if (checkWin(currentPlayer)) {
+            if (game.checkWin(player)) {
                 gameOver = true;
                 break;
             }
 
-            if (!playAgain) nextPlayer();
-            else System.out.println(PLAYER_COLORS[currentPlayer] + " draws again!");
+            if (!playAgain) game.nextPlayer();
+            else System.out.println(PLAYER_COLORS[player] + " draws again!");
         }
 
-        System.out.println("\n" + PLAYER_COLORS[currentPlayer] + " WINS!");
+        if (autosave != null) {
+            autosave.close();
+            Files.deleteIfExists(autosaveFile); // nothing left to resume
+        }
+        if (ansi) {
+            displayBoard(); // show the winning move before handing the screen back
+            renderer.releaseScreen(System.out);
+        }
+        System.out.println("\n" + PLAYER_COLORS[game.currentPlayer] + " WINS!");
     }
 }
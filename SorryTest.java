@@ -49,8 +49,8 @@ public class SorryTest {
     static final int HOME_STRETCH_SIZE = 5;
     static final String[] PLAYER_COLORS = {"Red", "Blue", "Yellow", "Green"};
 
-    /* Card deck (no 6 or 9 in Sorry!) */
-    static List<Integer> deck = new ArrayList<>();
+    /* Card deck (no 6 or 9 in Sorry!), with a count of each card type left */
+    static Deck deck = new Deck();
     static Random random = new Random();
 
     /*
@@ -144,41 +144,21 @@ public class SorryTest {
     }
 
     /**
-     * Fills the deck with four of each card type, then shuffles to randomize the
-     * draw order.
+     * Puts all four of each card type back in the deck. The Deck shuffles as it
+     * draws, so nothing has to be rebuilt here.
      */
     static void resetDeck() {
-        deck.clear();
-        // Sorry! deck: 4 of each card 1-12 (no 6 or 9), plus 4 Sorry! cards (represented as 13)
-        int[] cardTypes = {1, 2, 3, 4, 5, 7, 8, 10, 11, 12, 13};
-        for (int card : cardTypes) {
-            for (int i = 0; i < 4; i++) {
-                deck.add(card);
-            }
-        }
-        shuffleDeck();
+        deck.reset();
     }
 
     /**
-     * Grabs the top card, reshuffling if the pile ran out.
+     * Draws a random card from the ones left, reshuffling if the pile ran out.
      */
     static int drawCard() {
         if (deck.isEmpty()) {
             resetDeck();
         }
-        return deck.remove(deck.size() - 1);
-    }
-
-    /**
-     * Simple manual shuffle using Random so it fits what we learned.
-     */
-    static void shuffleDeck() {
-        for (int i = deck.size() - 1; i > 0; i--) {
-            int j = random.nextInt(i + 1);
-            int temp = deck.get(i);
-            deck.set(i, deck.get(j));
-            deck.set(j, temp);
-        }
+        return deck.draw(random);
     }
 
     /**
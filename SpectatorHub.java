@@ -0,0 +1,187 @@
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fans one table's lines (TURN, EVENT, KEYFRAME/DELTA, WINNER) out to any number of spectators
+ * as a java.util.concurrent.Flow.Publisher, without ever making the game wait for them.
+ * - submit() only appends to each subscription's bounded queue; delivery happens on the
+ *   executor, one drain task per subscription at a time, honouring the subscriber's request(n).
+ * - A subscription whose queue is full drops its backlog and lags: its next line will be a
+ *   KEYFRAME of the latest position instead of the turns it missed. Until that keyframe is
+ *   delivered, each snapshot() replaces it and the lines queued behind it (coalescing), so a
+ *   subscriber that stays slow skips whole turns rather than falling further behind.
+ * - New subscribers start lagging, so their first line is a keyframe too.
+ * - A subscriber whose onNext throws is dropped without further signals and counted in broken.
+ *
+ * Threads: submit(), snapshot() and close() come from the game loop; subscribe() from anywhere.
+ */
+public class SpectatorHub implements Flow.Publisher<String> {
+
+    static final int BUFFER = 256; // lines per subscriber; a turn is a handful
+
+    Executor executor;
+    List<Subscription> subscriptions = new CopyOnWriteArrayList<>(); // written rarely, read every line
+    volatile boolean closed = false;
+    AtomicLong broken = new AtomicLong(); // subscribers dropped because onNext threw
+
+    SpectatorHub(Executor executor) { this.executor = executor; }
+
+    // ===== Subscriptions =====
+    class Subscription implements Flow.Subscription {
+        Flow.Subscriber<? super String> subscriber;
+        ArrayDeque<String> queue = new ArrayDeque<>(); // guarded by this, as are the fields below
+        long demand = 0;
+        volatile boolean lagging = true; // next line is a keyframe; read without the lock as a hint
+        String latest;                   // that keyframe, null until snapshot() gives one
+        boolean draining = false;
+        boolean done = false;            // cancelled or terminated: no more signals
+        Throwable error;                 // to deliver from the drain task, which ends the subscription
+        long dropped = 0;                // lines skipped while lagging
+
+        Subscription(Flow.Subscriber<? super String> subscriber) { this.subscriber = subscriber; }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (n <= 0) { // rule 3.9; onError comes from the drain task so signals stay serial (rule 1.3)
+                    if (error == null) error = new IllegalArgumentException("request(" + n + "): demand must be positive");
+                    queue.clear();
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                done = true;
+                queue.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        synchronized void offer(String line) {
+            if (done || error != null) return;
+            if (lagging && latest == null) {
+                dropped++; // the coming keyframe covers it
+            } else if (queue.size() < BUFFER) {
+                queue.add(line);
+            } else {
+                dropped += queue.size() + 1;
+                queue.clear();
+                lagging = true;
+                latest = null;
+            }
+        }
+
+        synchronized void offerSnapshot(String keyframe) {
+            if (!lagging || done) return;
+            dropped += queue.size();
+            queue.clear(); // what followed the older keyframe is in this one
+            latest = keyframe;
+        }
+
+        // Starts a drain task unless one is running; it stops itself when it runs out of work
+        void signal() {
+            synchronized (this) {
+                if (draining || done) return;
+                draining = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        void drain() {
+            while (true) {
+                String line;
+                boolean complete = false;
+                Throwable failed = null;
+                synchronized (this) {
+                    boolean ready = lagging ? latest != null : !queue.isEmpty();
+                    if (error != null && !done) {
+                        failed = error;
+                        line = null;
+                        done = true;
+                    } else if (done || ready && demand == 0) {
+                        draining = false;
+                        return;
+                    } else if (ready && lagging) {
+                        line = latest;
+                        latest = null;
+                        lagging = false;
+                    } else if (ready) {
+                        line = queue.poll();
+                    } else if (closed) { // onComplete needs no demand, only an empty queue
+                        line = null;
+                        complete = true;
+                        done = true;
+                    } else {
+                        draining = false;
+                        return;
+                    }
+                    if (line != null) demand--;
+                }
+                if (failed != null) {
+                    subscriptions.remove(this);
+                    subscriber.onError(failed);
+                    return;
+                }
+                if (complete) {
+                    subscriptions.remove(this);
+                    subscriber.onComplete();
+                    return;
+                }
+                try {
+                    subscriber.onNext(line);
+                } catch (RuntimeException e) {
+                    // Rule 2.13: a subscriber that throws is broken; treat it as cancelled and signal it no more
+                    cancel();
+                    broken.incrementAndGet();
+                    System.err.println("Spectator dropped: onNext threw " + e);
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        Subscription subscription = new Subscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscriptions.add(subscription);
+        if (closed) subscription.signal(); // completes straight away
+    }
+
+    boolean watched() { return !subscriptions.isEmpty(); }
+
+    // ===== Publishing (game loop) =====
+    void submit(String line) {
+        for (Subscription s : subscriptions) {
+            s.offer(line);
+            s.signal();
+        }
+    }
+
+    // Gives lagging subscribers the position as it is now; keyframe is only built if one needs it
+    void snapshot(Supplier<String> keyframe) {
+        String line = null;
+        for (Subscription s : subscriptions) {
+            if (!s.lagging) continue;
+            if (line == null) line = keyframe.get();
+            s.offerSnapshot(line);
+            s.signal();
+        }
+    }
+
+    // No more lines: every subscriber gets what is queued, then onComplete
+    void close() {
+        closed = true;
+        for (Subscription s : subscriptions) s.signal();
+    }
+}
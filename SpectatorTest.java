@@ -0,0 +1,146 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * SpectatorHub checks: java SpectatorTest (see Checks).
+ * The hub runs on a direct executor (Runnable::run), so every signal has been delivered by the
+ * time submit(), snapshot(), request() or close() returns and the checks need no waiting.
+ */
+public class SpectatorTest extends Checks {
+
+    // Records every signal; onNext also runs the hook, which may request, cancel or throw
+    static class Recorder implements Flow.Subscriber<String> {
+        Flow.Subscription subscription;
+        List<String> lines = new ArrayList<>();
+        int completes = 0;
+        Throwable error;
+        Consumer<String> hook = line -> { };
+
+        @Override public void onSubscribe(Flow.Subscription subscription) { this.subscription = subscription; }
+        @Override public void onNext(String line) {
+            lines.add(line);
+            hook.accept(line);
+        }
+        @Override public void onError(Throwable error) { this.error = error; }
+        @Override public void onComplete() { completes++; }
+
+        boolean got(String... expected) { return lines.equals(List.of(expected)); }
+    }
+
+    static SpectatorHub hub() { return new SpectatorHub(Runnable::run); }
+
+    static Recorder watch(SpectatorHub hub, long demand) {
+        Recorder recorder = new Recorder();
+        hub.subscribe(recorder);
+        if (demand > 0) recorder.subscription.request(demand);
+        return recorder;
+    }
+
+    // A new subscriber starts from a keyframe, then gets lines in order as far as it asked
+    static void delivery() {
+        SpectatorHub hub = hub();
+        Recorder r = watch(hub, 3);
+        hub.submit("TURN a"); // before any keyframe: covered by it
+        check(r.lines.isEmpty(), "nothing before the first keyframe");
+        int[] built = {0};
+        hub.snapshot(() -> {
+            built[0]++;
+            return "KEYFRAME 1";
+        });
+        hub.submit("TURN b");
+        hub.submit("TURN c");
+        hub.submit("TURN d");
+        check(r.got("KEYFRAME 1", "TURN b", "TURN c"), "delivered up to demand: " + r.lines);
+        hub.snapshot(() -> {
+            built[0]++;
+            return "KEYFRAME 2";
+        });
+        check(built[0] == 1, "keyframe only built while someone lags");
+        r.subscription.request(1);
+        check(r.got("KEYFRAME 1", "TURN b", "TURN c", "TURN d"), "more demand delivers the queued line");
+
+        hub.submit("WINNER RED");
+        hub.close();
+        check(r.completes == 0, "close() waits until queued lines are delivered");
+        r.subscription.request(1);
+        check(r.got("KEYFRAME 1", "TURN b", "TURN c", "TURN d", "WINNER RED") && r.completes == 1 && r.error == null,
+                "queued lines, then onComplete");
+        check(!hub.watched(), "completed subscriber removed");
+
+        Recorder late = watch(hub, 0);
+        check(late.subscription != null && late.completes == 1 && late.lines.isEmpty(), "subscribing to a closed hub completes at once");
+    }
+
+    // A full queue drops the backlog; the subscriber resumes from the latest keyframe
+    static void overflow() {
+        SpectatorHub hub = hub();
+        Recorder r = watch(hub, 1);
+        Recorder fast = watch(hub, Long.MAX_VALUE);
+        hub.snapshot(() -> "KEYFRAME 0");
+        for (int i = 0; i < SpectatorHub.BUFFER; i++) hub.submit("TURN " + i);
+        check(r.got("KEYFRAME 0"), "slow subscriber holds a full queue");
+        hub.submit("TURN overflow");
+        hub.submit("TURN after");
+        hub.snapshot(() -> "KEYFRAME 1");
+        hub.submit("TURN x");
+        hub.snapshot(() -> "KEYFRAME 2"); // replaces KEYFRAME 1 and TURN x behind it
+        hub.submit("TURN y");
+        r.subscription.request(10);
+        check(r.got("KEYFRAME 0", "KEYFRAME 2", "TURN y"), "lagging subscriber skips to the latest keyframe: " + r.lines);
+        check(fast.lines.size() == 1 + SpectatorHub.BUFFER + 4 && fast.lines.get(SpectatorHub.BUFFER + 1).equals("TURN overflow"),
+                "a slow subscriber doesn't hold up a fast one");
+        check(!fast.lines.contains("KEYFRAME 1") && !fast.lines.contains("KEYFRAME 2"), "keyframes only go to lagging subscribers");
+    }
+
+    // request(n <= 0) ends the subscription with onError (rule 3.9), from the drain
+    static void badRequest() {
+        for (long n : new long[] {0, -1}) {
+            SpectatorHub hub = hub();
+            Recorder r = watch(hub, 0);
+            hub.snapshot(() -> "KEYFRAME 0");
+            hub.submit("TURN a");
+            r.subscription.request(n);
+            check(r.error instanceof IllegalArgumentException && r.lines.isEmpty(), "request(" + n + ") signals onError");
+            r.subscription.request(5);
+            hub.submit("TURN b");
+            hub.close();
+            check(r.lines.isEmpty() && r.completes == 0, "request(" + n + "): no signals after onError");
+            check(!hub.watched(), "request(" + n + "): subscriber removed");
+        }
+    }
+
+    // A subscriber whose onNext throws is dropped and counted (rule 2.13); one that cancels there just stops
+    static void throwAndCancel() {
+        SpectatorHub hub = hub();
+        Recorder thrower = watch(hub, Long.MAX_VALUE);
+        thrower.hook = line -> {
+            if (line.equals("TURN a")) throw new IllegalStateException("spectator bug");
+        };
+        Recorder canceller = watch(hub, Long.MAX_VALUE);
+        canceller.hook = line -> {
+            if (line.equals("TURN a")) canceller.subscription.cancel();
+        };
+        Recorder other = watch(hub, Long.MAX_VALUE);
+        hub.snapshot(() -> "KEYFRAME 0");
+        hub.submit("TURN a");
+        hub.submit("TURN b");
+        hub.close();
+        check(thrower.got("KEYFRAME 0", "TURN a") && thrower.completes == 0 && thrower.error == null,
+                "no signals after onNext threw");
+        check(canceller.got("KEYFRAME 0", "TURN a") && canceller.completes == 0 && canceller.error == null,
+                "no signals after cancel() in onNext");
+        check(other.got("KEYFRAME 0", "TURN a", "TURN b") && other.completes == 1, "others carry on");
+        check(hub.broken.get() == 1, hub.broken.get() + " subscribers counted broken");
+        check(!hub.watched(), "all subscribers removed");
+    }
+
+    public static void main(String[] args) {
+        delivery();
+        overflow();
+        badRequest();
+        throwAndCancel();
+        finish("spectator");
+    }
+}
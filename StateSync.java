@@ -0,0 +1,114 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Keeps a client's copy of the pawn positions in step with a game by sending only the pawns
+ * that changed, instead of the whole board.
+ * - Listens to the game's GameEvents: MOVED, SLID, SWITCHED and BUMPED mark the pawns they
+ *   touch (the mover, bump and slide victims, swap partners), so nothing is compared or scanned.
+ *   A turn changes at most a handful of pawns: a delta is 1 + 2 bytes per pawn.
+ * - The first message, every KEYFRAME_EVERY-th after it and the next one after keyframe() are
+ *   keyframes of all 16 pawns, so a client that joined late or lost track resyncs.
+ * - Positions are read from the engine when the message is written, so several turns between
+ *   two messages (bot turns, or a slow reader) still cost one delta.
+ *
+ * Payloads (GameGateway's KEYFRAME and DELTA):
+ *   keyframe  16 x u8 position + 1   (Start = 0, Home = 66), players in order
+ *   delta     u8 count | count x (u8 pawn id = player * 4 + pawn, u8 position + 1)
+ * Text clients get the same as a line: "KEYFRAME p p ... p" or "DELTA id:p id:p ...".
+ */
+public class StateSync implements GameEvents.Listener {
+
+    static final int PAWNS = GameEngine.PLAYERS * GameEngine.PAWNS_PER_PLAYER;
+    static final int KEYFRAME_EVERY = 32;   // messages between keyframes
+
+    GameEngine game;
+    int changed = 0;            // bit per pawn id changed since the last message
+    boolean keyframeDue = true;
+    int sinceKeyframe = 0;
+    long messages = 0;
+    long bytes = 0;             // payload bytes written, for bandwidth numbers
+
+    StateSync(GameEngine game) {
+        this.game = game;
+        game.listen(this);
+    }
+
+    @Override
+    public void onEvent(int event) {
+        switch (GameEvents.type(event)) {
+            case GameEvents.MOVED, GameEvents.SLID, GameEvents.BUMPED -> mark(GameEvents.player(event), GameEvents.pawn(event));
+            case GameEvents.SWITCHED -> {
+                mark(GameEvents.player(event), GameEvents.pawn(event));
+                mark(GameEvents.otherPlayer(event), GameEvents.otherPawn(event));
+            }
+            default -> { } // ENTERED_HOME_STRETCH and REACHED_HOME follow a MOVED
+        }
+    }
+
+    void mark(int player, int pawn) {
+        changed |= 1 << (player * GameEngine.PAWNS_PER_PLAYER + pawn);
+    }
+
+    // Sends the whole board next (new or loaded game, a client that needs to resync)
+    void keyframe() { keyframeDue = true; }
+
+    // Something to send: a keyframe is due or a pawn changed
+    boolean pending() { return keyframeDue || changed != 0; }
+
+    boolean keyframeNext() { return keyframeDue || sinceKeyframe + 1 >= KEYFRAME_EVERY; }
+
+    // Payload bytes of the next message
+    int size() { return keyframeNext() ? PAWNS : 1 + 2 * Integer.bitCount(changed); }
+
+    // Writes the next message's payload (keyframeNext() says which) and starts a new delta
+    void write(ByteBuffer out) {
+        int start = out.position();
+        if (keyframeNext()) {
+            for (int id = 0; id < PAWNS; id++) out.put(position(id));
+            keyframeDue = false;
+            sinceKeyframe = 0;
+        } else {
+            out.put((byte) Integer.bitCount(changed));
+            for (int bits = changed; bits != 0; bits &= bits - 1) {
+                int id = Integer.numberOfTrailingZeros(bits);
+                out.put((byte) id).put(position(id));
+            }
+            sinceKeyframe++;
+        }
+        changed = 0;
+        messages++;
+        bytes += out.position() - start;
+    }
+
+    // The next message as a text line, for line-protocol clients
+    String line() {
+        StringBuilder line = new StringBuilder();
+        if (keyframeNext()) {
+            line.append(keyframeLine());
+            keyframeDue = false;
+            sinceKeyframe = 0;
+        } else {
+            line.append("DELTA");
+            for (int bits = changed; bits != 0; bits &= bits - 1) {
+                int id = Integer.numberOfTrailingZeros(bits);
+                line.append(' ').append(id).append(':').append(position(id) - 1);
+            }
+            sinceKeyframe++;
+        }
+        changed = 0;
+        messages++;
+        bytes += line.length() + 1;
+        return line.toString();
+    }
+
+    // The whole board as a KEYFRAME line, without touching what the next message will be
+    String keyframeLine() {
+        StringBuilder line = new StringBuilder("KEYFRAME");
+        for (int id = 0; id < PAWNS; id++) line.append(' ').append(position(id) - 1);
+        return line.toString();
+    }
+
+    byte position(int id) {
+        return (byte) (game.pawnPositions[id / GameEngine.PAWNS_PER_PLAYER][id % GameEngine.PAWNS_PER_PLAYER] + 1);
+    }
+}
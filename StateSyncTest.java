@@ -0,0 +1,150 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * StateSync checks: java StateSyncTest (see Checks).
+ * Plays games with one StateSync sending payloads and another sending lines, applies each
+ * message to a client's board the way a client would, and compares it with the engine.
+ */
+public class StateSyncTest extends Checks {
+
+    static final int PAWNS = StateSync.PAWNS;
+
+    static MoveBuffer moves = new MoveBuffer();
+    static Bot[] bots = {new RandomBot(), new RandomBot(), new RandomBot(), new RandomBot()};
+
+    static int[] board(GameEngine game) {
+        int[] board = new int[PAWNS];
+        for (int id = 0; id < PAWNS; id++) {
+            board[id] = game.pawnPositions[id / GameEngine.PAWNS_PER_PLAYER][id % GameEngine.PAWNS_PER_PLAYER];
+        }
+        return board;
+    }
+
+    // One decision, with listeners kept out of the bot's search as GameServer does
+    static void decide(GameEngine game, SplittableRandom rnd) {
+        int card = game.prepareDecision(moves);
+        GameEvents events = game.events;
+        game.events = null;
+        int choice;
+        try {
+            choice = bots[game.currentPlayer].chooseMove(game, card, moves, rnd);
+        } finally {
+            game.events = events;
+        }
+        game.applyDecision(moves.get(choice));
+    }
+
+    // Applies a payload to board (keyframe says which kind it is); before is the board last sent
+    static void apply(ByteBuffer in, boolean keyframe, int[] board, int[] before, String what) {
+        if (keyframe) {
+            check(in.remaining() == PAWNS, what + ": keyframe is " + in.remaining() + " bytes");
+            for (int id = 0; id < PAWNS; id++) board[id] = (in.get() & 0xFF) - 1;
+            return;
+        }
+        int count = in.get() & 0xFF;
+        check(in.remaining() == 2 * count, what + ": delta of " + count + " pawns is " + (1 + in.remaining()) + " bytes");
+        int seen = 0;
+        int last = -1;
+        for (int i = 0; i < count; i++) {
+            int id = in.get() & 0xFF;
+            check(id > last && id < PAWNS, what + ": delta pawn ids ascend (" + id + " after " + last + ")");
+            last = id;
+            seen |= 1 << id;
+            board[id] = (in.get() & 0xFF) - 1;
+        }
+        for (int id = 0; id < PAWNS; id++) {
+            if (before[id] != board[id] && (seen & 1 << id) == 0) check(false, what + ": moved pawn " + id + " missing from delta");
+        }
+    }
+
+    // Applies a text message to board; true if it was a keyframe
+    static boolean applyLine(String line, int[] board) {
+        String[] words = line.split(" ");
+        if (words[0].equals("KEYFRAME")) {
+            for (int id = 0; id < PAWNS; id++) board[id] = Integer.parseInt(words[id + 1]);
+            return true;
+        }
+        check(words[0].equals("DELTA"), "line is a KEYFRAME or DELTA: " + line);
+        for (int i = 1; i < words.length; i++) {
+            String[] pair = words[i].split(":");
+            board[Integer.parseInt(pair[0])] = Integer.parseInt(pair[1]);
+        }
+        return false;
+    }
+
+    // Messages after every decision or every few; keyframes on the cadence unless one is asked for
+    static void games() {
+        for (int every : new int[] {1, 2}) {
+            GameEngine game = new GameEngine(24);
+            game.initializeGame(2400 + every);
+            StateSync binary = new StateSync(game);
+            StateSync text = new StateSync(game);
+            SplittableRandom rnd = new SplittableRandom(every);
+            int[] client = new int[PAWNS];
+            int[] textClient = new int[PAWNS];
+            int[] sent = board(game);
+            ByteBuffer out = ByteBuffer.allocate(64);
+            int message = 0;
+            int lastKeyframe = 0;
+            int forcedAt = 40;
+            check(binary.pending() && binary.keyframeNext(), "a new sync starts with a keyframe");
+            while (true) {
+                String what = "every " + every + ", message " + message;
+                if (message == forcedAt) {
+                    binary.keyframe();
+                    text.keyframe();
+                }
+                boolean keyframe = binary.keyframeNext();
+                boolean expected = message == 0 || message == forcedAt || message - lastKeyframe == StateSync.KEYFRAME_EVERY;
+                check(keyframe == expected, what + ": keyframe " + keyframe + ", expected " + expected);
+                if (keyframe) lastKeyframe = message;
+
+                int size = binary.size();
+                long bytesBefore = binary.bytes;
+                out.clear();
+                binary.write(out);
+                out.flip();
+                check(out.remaining() == size && binary.bytes - bytesBefore == size, what + ": size() is what write() wrote");
+                apply(out, keyframe, client, sent, what);
+                check(!binary.pending(), what + ": nothing pending after a message");
+                check(Arrays.equals(client, board(game)), what + ": client matches the engine");
+
+                check(applyLine(text.line(), textClient) == keyframe, what + ": line is the same kind of message");
+                check(Arrays.equals(textClient, board(game)), what + ": text client matches the engine");
+                check(binary.messages == message + 1 && text.messages == message + 1, what + ": messages counted");
+                message++;
+
+                if (game.isOver()) break;
+                sent = board(game);
+                // Several decisions between messages still make one delta
+                for (int i = 0; i < every && !game.isOver(); i++) decide(game, rnd);
+            }
+            check(message > forcedAt + StateSync.KEYFRAME_EVERY, "every " + every + ": game long enough to cover the cadence (" + message + " messages)");
+        }
+    }
+
+    // A message with no moved pawns is an empty delta; keyframeLine() leaves the cadence alone
+    static void quiet() {
+        GameEngine game = new GameEngine(0);
+        game.initializeGame(2424);
+        StateSync sync = new StateSync(game);
+        check(sync.line().startsWith("KEYFRAME"), "first line is a keyframe");
+        check(!sync.pending(), "nothing pending before a move");
+        check(sync.size() == 1, "an empty delta is its count byte");
+        check(sync.line().equals("DELTA"), "an empty delta line");
+        String keyframe = sync.keyframeLine();
+        check(keyframe.equals(sync.keyframeLine()) && !sync.keyframeNext() && sync.sinceKeyframe == 1,
+                "keyframeLine() doesn't change the next message");
+        int[] board = new int[PAWNS];
+        applyLine(keyframe, board);
+        check(Arrays.equals(board, board(game)), "keyframeLine() holds the board");
+    }
+
+    public static void main(String[] args) {
+        games();
+        quiet();
+        finish("state sync");
+    }
+}
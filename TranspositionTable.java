@@ -0,0 +1,55 @@
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table for search bots, safe to share between threads without locks.
+ * - Each slot is two longs: (key ^ data, data). A probe only accepts a slot whose words XOR
+ *   back to the key it asked for, so a slot torn by two threads writing at once reads as a miss
+ *   instead of returning another position's value.
+ * - data packs the value (float bits), the search depth and the bound type.
+ * - Always-replace: a new result overwrites whatever shared its slot.
+ */
+public class TranspositionTable {
+
+    static final long MISS = -1L;
+
+    // Bound types: how the stored value relates to the real one
+    static final int EXACT = 0;
+    static final int LOWER = 1; // real value >= stored (search failed high)
+    static final int UPPER = 2; // real value <= stored (search failed low)
+
+    static final int DEPTH_SHIFT = 32;
+    static final int BOUND_SHIFT = 40;
+
+    final long[] slots;
+    final int mask;
+
+    TranspositionTable(int log2Entries) {
+        slots = new long[2 << log2Entries];
+        mask = (1 << log2Entries) - 1;
+    }
+
+    // Returns the stored data for key, or MISS
+    long probe(long key) {
+        int i = ((int) key & mask) << 1;
+        long check = slots[i];
+        long data = slots[i + 1];
+        return (check ^ data) == key ? data : MISS;
+    }
+
+    void store(long key, float value, int depth, int bound) {
+        long data = (Float.floatToRawIntBits(value) & 0xFFFFFFFFL)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT);
+        int i = ((int) key & mask) << 1;
+        slots[i] = key ^ data;
+        slots[i + 1] = data;
+    }
+
+    static float value(long data) { return Float.intBitsToFloat((int) data); }
+
+    static int depth(long data) { return (int) (data >>> DEPTH_SHIFT) & 0xFF; }
+
+    static int bound(long data) { return (int) (data >>> BOUND_SHIFT) & 0x3; }
+
+    void clear() { Arrays.fill(slots, 0L); }
+}
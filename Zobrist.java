@@ -0,0 +1,61 @@
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for GameEngine.hash: one random 64-bit key per (pawn, position),
+ * (player, saved Sorry! count), player to move and (card type, copies left in the deck).
+ * The hash of a state is the XOR of the keys that describe it, so the engine keeps it
+ * current with a couple of XORs per change instead of recomputing it.
+ *
+ * Fixed seed: the same state hashes the same in every run, so hashes can be stored.
+ */
+public class Zobrist {
+
+    static final int PAWNS = GameEngine.PLAYERS * GameEngine.PAWNS_PER_PLAYER;
+    static final int POSITIONS = GameEngine.HOME_POS + 2; // -1..65
+    static final int SAVED_KEYS = 256;                    // same range as PackedState and GameSnapshot; clamped past it
+    static final int COPIES = GameEngine.DECK_SIZE / GameEngine.CARD_TYPES.length;
+
+    static final long[] PAWN = new long[PAWNS * POSITIONS];                              // [id * POSITIONS + pos + 1]
+    static final long[] SAVED = new long[GameEngine.PLAYERS * SAVED_KEYS];               // [player * SAVED_KEYS + count]
+    static final long[] PLAYER = new long[GameEngine.PLAYERS];
+    static final long[] DECK = new long[GameEngine.CARD_TYPES.length * (COPIES + 1)];   // [type * (COPIES + 1) + left]
+
+    static {
+        SplittableRandom rnd = new SplittableRandom(0x5022795L);
+        fill(PAWN, rnd);
+        fill(SAVED, rnd);
+        fill(PLAYER, rnd);
+        fill(DECK, rnd);
+    }
+
+    static void fill(long[] keys, SplittableRandom rnd) {
+        for (int i = 0; i < keys.length; i++) keys[i] = rnd.nextLong();
+    }
+
+    static long pawn(int player, int pawn, int pos) {
+        return PAWN[(player * GameEngine.PAWNS_PER_PLAYER + pawn) * POSITIONS + pos + 1];
+    }
+
+    static long saved(int player, int count) {
+        return SAVED[player * SAVED_KEYS + Math.min(count, SAVED_KEYS - 1)];
+    }
+
+    static long deck(int type, int left) {
+        return DECK[type * (COPIES + 1) + left];
+    }
+
+    // From scratch; the engine only calls this after its state was overwritten wholesale
+    static long of(GameEngine game) {
+        long h = PLAYER[game.currentPlayer];
+        for (int p = 0; p < GameEngine.PLAYERS; p++) {
+            for (int pawn = 0; pawn < GameEngine.PAWNS_PER_PLAYER; pawn++) {
+                h ^= pawn(p, pawn, game.pawnPositions[p][pawn]);
+            }
+            h ^= saved(p, game.savedSorryCards[p]);
+        }
+        for (int t = 0; t < GameEngine.CARD_TYPES.length; t++) {
+            h ^= deck(t, game.deck.left[t]);
+        }
+        return h;
+    }
+}